@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.core.contexts;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link RunAndTrack} that is re-evaluated asynchronously on the supplied executor.
+ * <p>
+ * The initial call to {@link #changed(IEclipseContext)} is made synchronously from
+ * {@link IEclipseContext#runAndTrack(RunAndTrack)}. Subsequent changes to the tracked
+ * values schedule a re-evaluation on the executor. Changes that arrive while a
+ * re-evaluation is already pending are coalesced into it; as values are retrieved
+ * from the context at the time of the call, the runnable always observes the latest state.
+ * If the executor rejects a re-evaluation, it is made on the thread that changed the context.
+ * </p>
+ * <p>
+ * This class is intended to be subclassed by clients.
+ * </p>
+ * @see IEclipseContext#runAndTrack(RunAndTrack)
+ * @since 1.3
+ */
+abstract public class AsyncRunAndTrack extends RunAndTrack {
+
+	final private Executor executor;
+	final private AtomicLong scheduledCount = new AtomicLong();
+	final private AtomicLong coalescedCount = new AtomicLong();
+
+	/**
+	 * Creates a new instance of asynchronous trackable computation
+	 * @param executor the executor used to re-evaluate this runnable; must not be <code>null</code>
+	 */
+	public AsyncRunAndTrack(Executor executor) {
+		super();
+		if (executor == null)
+			throw new NullPointerException("executor"); //$NON-NLS-1$
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns the executor used to re-evaluate this runnable.
+	 * @return the executor supplied on creation
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Returns the number of re-evaluations submitted to the executor.
+	 * @return the number of submitted re-evaluations, in all the contexts this runnable is tracked in
+	 */
+	public long getScheduledCount() {
+		return scheduledCount.get();
+	}
+
+	/**
+	 * Returns the number of changes that were coalesced into an already pending re-evaluation
+	 * rather than submitted to the executor.
+	 * @return the number of coalesced changes, in all the contexts this runnable is tracked in
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+
+	/**
+	 * Counts a change that was submitted to the executor or coalesced into a pending re-evaluation.
+	 * @param coalesced <code>true</code> if the change was coalesced
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public void recordChange(boolean coalesced) {
+		if (coalesced)
+			coalescedCount.incrementAndGet();
+		else
+			scheduledCount.incrementAndGet();
+	}
+}
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.core.contexts;
+
+/**
+ * An immutable view of the values of a context at the time the snapshot was taken.
+ * <p>
+ * Values never change in a snapshot: modifications made after the snapshot was taken are
+ * not visible through it, and the snapshot can be read from any thread without
+ * synchronization. Values of context functions are computed by the context when the
+ * snapshot is taken, so reading a snapshot never uses the context.
+ * </p>
+ * @see IEclipseContext#snapshot()
+ * @noimplement This interface is not intended to be implemented by clients.
+ * @noextend This interface is not intended to be extended by clients.
+ * @since 1.3
+ */
+public interface IContextSnapshot {
+
+	/**
+	 * Returns whether the context or a parent had a value stored for the given name
+	 * when the snapshot was taken.
+	 * @param name the name being queried
+	 * @return <code>true</code> if the snapshot has a value for the given name, and
+	 * <code>false</code> otherwise.
+	 */
+	public boolean containsKey(String name);
+
+	/**
+	 * Returns whether the context or a parent had a value stored for the given class
+	 * when the snapshot was taken.
+	 * @param clazz the class being queried
+	 * @return <code>true</code> if the snapshot has a value for the given class, and
+	 * <code>false</code> otherwise.
+	 * @see #containsKey(String)
+	 */
+	public boolean containsKey(Class<?> clazz);
+
+	/**
+	 * Returns the value the context had for the given name when the snapshot was taken.
+	 * Values of context functions are the values computed for the context when the snapshot
+	 * was taken.
+	 * @param name the name of the value to return
+	 * @return an object corresponding to the given name, or <code>null</code>
+	 */
+	public Object get(String name);
+
+	/**
+	 * Returns the value the context had for the given class when the snapshot was taken.
+	 * @param clazz the class of the value to return
+	 * @return an object corresponding to the given class, or <code>null</code>
+	 * @see #get(String)
+	 */
+	public <T> T get(Class<T> clazz);
+}
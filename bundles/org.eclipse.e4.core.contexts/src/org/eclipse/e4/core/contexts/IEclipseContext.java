@@ -328,4 +328,21 @@ public interface IEclipseContext {
 	 */
 	public Object getActive(final String name);
 
+	/**
+	 * Returns an immutable view of the values of this context and its parents.
+	 * <p>
+	 * Values of context functions visible from this context that are already computed are
+	 * taken as they are; the other context functions are computed by this method. Values that
+	 * are only looked up on demand, such as OSGi services that have not been requested from
+	 * the context yet, are not part of the snapshot.
+	 * </p>
+	 * <p>
+	 * Snapshots of contexts that have not changed in between share their data, so taking
+	 * snapshots repeatedly is cheap.
+	 * </p>
+	 * @return snapshot of the values of this context
+	 * @since 1.3
+	 */
+	public IContextSnapshot snapshot();
+
 }
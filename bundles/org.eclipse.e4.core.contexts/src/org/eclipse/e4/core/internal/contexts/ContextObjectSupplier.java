@@ -37,6 +37,11 @@ public class ContextObjectSupplier extends PrimaryObjectSupplier {
 		final private IRequestor requestor;
 		final private IEclipseContext context;
 
+		// re-injection state: updates that arrive while the requestor is being re-injected
+		// are coalesced into a single follow-up pass
+		private boolean updating = false;
+		private boolean updatePending = false;
+
 		public ContextInjectionListener(IEclipseContext context, Object[] result, String[] keys, boolean[] active, IRequestor requestor, boolean group) {
 			super(group);
 			this.result = result;
@@ -84,12 +89,39 @@ public class ContextObjectSupplier extends PrimaryObjectSupplier {
 			} else {
 				if (!requestor.isValid())
 					return false; // remove this listener
-				requestor.resolveArguments(false);
-				requestor.execute();
+				synchronized (this) {
+					if (updating) {
+						updatePending = true;
+						return true;
+					}
+					updating = true;
+				}
+				try {
+					do {
+						if (!requestor.isValid())
+							return false;
+						requestor.resolveArguments(false);
+						if (requestor instanceof Requestor)
+							((Requestor) requestor).executeIfChanged();
+						else
+							requestor.execute();
+					} while (takePendingUpdate());
+				} finally {
+					synchronized (this) {
+						updating = false;
+						updatePending = false;
+					}
+				}
 			}
 			return true;
 		}
 
+		synchronized private boolean takePendingUpdate() {
+			boolean result = updatePending;
+			updatePending = false;
+			return result;
+		}
+
 		public boolean changed(IEclipseContext eventsContext) {
 			return true;
 		}
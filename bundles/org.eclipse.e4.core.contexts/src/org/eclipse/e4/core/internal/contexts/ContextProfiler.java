@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.core.internal.contexts;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects statistics on context usage: how often each name is looked up, how many contexts
+ * are traversed to resolve it, how often computed values are served from their cache, and
+ * how much time is spent in value computations and RunAndTrack runnables.
+ * <p>
+ * Profiling is off unless the "org.eclipse.e4.core.contexts/debug/profile" option is set or
+ * it is turned on with {@link #setEnabled(boolean)}. When off, contexts only pay for a check
+ * of a static flag.
+ * </p>
+ */
+public final class ContextProfiler {
+
+	static private class NameStats {
+		final AtomicLong lookups = new AtomicLong();
+		final AtomicLong totalDepth = new AtomicLong();
+		final AtomicLong cacheHits = new AtomicLong();
+		final AtomicLong cacheMisses = new AtomicLong();
+	}
+
+	static private class ComputationStats {
+		final AtomicLong runs = new AtomicLong();
+		final AtomicLong totalTime = new AtomicLong();
+	}
+
+	static volatile boolean enabled = DebugHelper.DEBUG_PROFILE;
+
+	static final private ConcurrentHashMap<String, NameStats> names = new ConcurrentHashMap<String, NameStats>();
+	static final private ConcurrentHashMap<String, ComputationStats> computations = new ConcurrentHashMap<String, ComputationStats>();
+
+	private ContextProfiler() {
+		// static methods only
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(boolean enabled) {
+		ContextProfiler.enabled = enabled;
+	}
+
+	/**
+	 * Discards all statistics collected so far.
+	 */
+	public static void reset() {
+		names.clear();
+		computations.clear();
+	}
+
+	static void recordLookup(String name, int depth) {
+		NameStats stats = getNameStats(name);
+		stats.lookups.incrementAndGet();
+		stats.totalDepth.addAndGet(depth);
+	}
+
+	static void recordCacheHit(String name) {
+		getNameStats(name).cacheHits.incrementAndGet();
+	}
+
+	static void recordComputation(String name, String description, long time) {
+		getNameStats(name).cacheMisses.incrementAndGet();
+		recordRun(description, time);
+	}
+
+	static void recordRun(String description, long time) {
+		ComputationStats stats = computations.get(description);
+		if (stats == null) {
+			stats = new ComputationStats();
+			ComputationStats existing = computations.putIfAbsent(description, stats);
+			if (existing != null)
+				stats = existing;
+		}
+		stats.runs.incrementAndGet();
+		stats.totalTime.addAndGet(time);
+	}
+
+	static private NameStats getNameStats(String name) {
+		NameStats stats = names.get(name);
+		if (stats == null) {
+			stats = new NameStats();
+			NameStats existing = names.putIfAbsent(name, stats);
+			if (existing != null)
+				stats = existing;
+		}
+		return stats;
+	}
+
+	/**
+	 * Returns the number of lookups of the name.
+	 */
+	public static long getLookupCount(String name) {
+		NameStats stats = names.get(name);
+		return (stats == null) ? 0 : stats.lookups.get();
+	}
+
+	/**
+	 * Returns the average number of parent contexts traversed to resolve the name. A name
+	 * found in the context it was requested from has depth 0.
+	 */
+	public static double getAverageDepth(String name) {
+		NameStats stats = names.get(name);
+		if (stats == null || stats.lookups.get() == 0)
+			return 0;
+		return (double) stats.totalDepth.get() / stats.lookups.get();
+	}
+
+	/**
+	 * Returns the share of computed values served from the cache, between 0 and 1, for the name.
+	 */
+	public static double getCacheHitRatio(String name) {
+		NameStats stats = names.get(name);
+		if (stats == null)
+			return 0;
+		return ratio(stats.cacheHits.get(), stats.cacheMisses.get());
+	}
+
+	/**
+	 * Returns the share of computed values served from the cache, between 0 and 1, for all names.
+	 */
+	public static double getCacheHitRatio() {
+		long hits = 0;
+		long misses = 0;
+		for (NameStats stats : names.values()) {
+			hits += stats.cacheHits.get();
+			misses += stats.cacheMisses.get();
+		}
+		return ratio(hits, misses);
+	}
+
+	/**
+	 * Returns how many times the computation was executed.
+	 * @param description the class name of the context function or RunAndTrack
+	 */
+	public static long getExecutionCount(String description) {
+		ComputationStats stats = computations.get(description);
+		return (stats == null) ? 0 : stats.runs.get();
+	}
+
+	/**
+	 * Returns the total time spent in the computation, in nanoseconds.
+	 * @param description the class name of the context function or RunAndTrack
+	 */
+	public static long getExecutionTime(String description) {
+		ComputationStats stats = computations.get(description);
+		return (stats == null) ? 0 : stats.totalTime.get();
+	}
+
+	static private double ratio(long hits, long misses) {
+		long total = hits + misses;
+		return (total == 0) ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * Writes the collected statistics as tab-separated tables, busiest entries first.
+	 */
+	public static void writeReport(PrintWriter writer) {
+		List<Map.Entry<String, NameStats>> nameEntries = new ArrayList<Map.Entry<String, NameStats>>(names.entrySet());
+		Collections.sort(nameEntries, new Comparator<Map.Entry<String, NameStats>>() {
+			public int compare(Map.Entry<String, NameStats> o1, Map.Entry<String, NameStats> o2) {
+				return compareDescending(o1.getValue().lookups.get(), o2.getValue().lookups.get());
+			}
+		});
+		writer.println("Cache hit ratio\t" + format(getCacheHitRatio())); //$NON-NLS-1$
+		writer.println();
+		writer.println("Name\tLookups\tAverage depth\tCache hits\tCache misses"); //$NON-NLS-1$
+		for (Map.Entry<String, NameStats> entry : nameEntries) {
+			NameStats stats = entry.getValue();
+			writer.println(entry.getKey() + '\t' + stats.lookups.get() + '\t' + format(getAverageDepth(entry.getKey())) + '\t' + stats.cacheHits.get() + '\t' + stats.cacheMisses.get());
+		}
+
+		List<Map.Entry<String, ComputationStats>> computationEntries = new ArrayList<Map.Entry<String, ComputationStats>>(computations.entrySet());
+		Collections.sort(computationEntries, new Comparator<Map.Entry<String, ComputationStats>>() {
+			public int compare(Map.Entry<String, ComputationStats> o1, Map.Entry<String, ComputationStats> o2) {
+				return compareDescending(o1.getValue().totalTime.get(), o2.getValue().totalTime.get());
+			}
+		});
+		writer.println();
+		writer.println("Computation\tRuns\tTotal time (ms)\tAverage time (ms)"); //$NON-NLS-1$
+		for (Map.Entry<String, ComputationStats> entry : computationEntries) {
+			ComputationStats stats = entry.getValue();
+			long runs = stats.runs.get();
+			double total = stats.totalTime.get() / 1000000.0;
+			writer.println(entry.getKey() + '\t' + runs + '\t' + format(total) + '\t' + format((runs == 0) ? 0 : total / runs));
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Returns the collected statistics in the format of {@link #writeReport(PrintWriter)}.
+	 */
+	public static String getReport() {
+		StringWriter result = new StringWriter();
+		writeReport(new PrintWriter(result));
+		return result.toString();
+	}
+
+	static int compareDescending(long value1, long value2) {
+		return (value1 < value2) ? 1 : ((value1 == value2) ? 0 : -1);
+	}
+
+	static private String format(double value) {
+		return String.format(Locale.ENGLISH, "%.3f", value); //$NON-NLS-1$
+	}
+}
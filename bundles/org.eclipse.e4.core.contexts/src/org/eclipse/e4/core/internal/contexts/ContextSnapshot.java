@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.core.internal.contexts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.e4.core.contexts.IContextFunction;
+import org.eclipse.e4.core.contexts.IContextSnapshot;
+
+/**
+ * Snapshot made of the local values of each context in the parent chain and the values
+ * of the context functions computed for the originating context. The local values of a
+ * context are copied only once per modification of that context; unchanged contexts
+ * contribute the same layer to every snapshot.
+ * <p>
+ * The values of the context functions are computed by the originating context when the
+ * snapshot is taken, so the snapshot keeps no reference to the contexts and reading it never
+ * runs context functions.
+ * </p>
+ */
+public class ContextSnapshot implements IContextSnapshot {
+
+	/**
+	 * Immutable copy of the local values of one context.
+	 */
+	static class Layer {
+		final int version;
+		final Map<String, Object> values;
+		final String[] functions; // names of the context functions among the values
+
+		Layer(int version, Map<String, Object> values) {
+			this.version = version;
+			this.values = values;
+			List<String> functionNames = new ArrayList<String>();
+			for (Map.Entry<String, Object> entry : values.entrySet()) {
+				if (entry.getValue() instanceof IContextFunction)
+					functionNames.add(entry.getKey());
+			}
+			this.functions = functionNames.toArray(new String[functionNames.size()]);
+		}
+	}
+
+	final private Map<String, Object> computed;
+	final private Layer[] layers; // originating context first
+
+	ContextSnapshot(Map<String, Object> computed, Layer[] layers) {
+		this.computed = computed;
+		this.layers = layers;
+	}
+
+	public boolean containsKey(String name) {
+		if (computed.containsKey(name))
+			return true;
+		for (Layer layer : layers) {
+			if (layer.values.containsKey(name))
+				return true;
+		}
+		return false;
+	}
+
+	public boolean containsKey(Class<?> clazz) {
+		return containsKey(clazz.getName());
+	}
+
+	public Object get(String name) {
+		if (computed.containsKey(name))
+			return computed.get(name);
+		for (Layer layer : layers) {
+			if (layer.values.containsKey(name))
+				return layer.values.get(name);
+		}
+		return null;
+	}
+
+	public <T> T get(Class<T> clazz) {
+		return clazz.cast(get(clazz.getName()));
+	}
+}
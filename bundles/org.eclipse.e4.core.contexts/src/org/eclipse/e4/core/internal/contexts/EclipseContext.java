@@ -23,7 +23,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.e4.core.contexts.IContextFunction;
+import org.eclipse.e4.core.contexts.IContextSnapshot;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.contexts.RunAndTrack;
 import org.eclipse.e4.core.di.IInjector;
@@ -79,6 +81,10 @@ public class EclipseContext implements IEclipseContext {
 
 	final protected Map<String, Object> localValues = Collections.synchronizedMap(new HashMap<String, Object>());
 
+	// incremented on every change of the local values; used to reuse snapshot layers
+	final private AtomicInteger localVersion = new AtomicInteger();
+	private volatile ContextSnapshot.Layer snapshotLayer;
+
 	private ArrayList<String> modifiable;
 
 	private List<Computation> waiting; // list of Computations; null for all non-root entries
@@ -193,6 +199,7 @@ public class EclipseContext implements IEclipseContext {
 		}
 
 		localValues.clear();
+		localValuesChanged();
 
 		if (parent != null) {
 			parent.removeChild(this);
@@ -206,14 +213,33 @@ public class EclipseContext implements IEclipseContext {
 
 	public Object get(String name) {
 		trackAccess(name);
+		if (ContextProfiler.enabled)
+			ContextProfiler.recordLookup(name, resolutionDepth(name));
 		return internalGet(this, name, false);
 	}
 
 	public Object getLocal(String name) {
 		trackAccess(name);
+		if (ContextProfiler.enabled)
+			ContextProfiler.recordLookup(name, 0);
 		return internalGet(this, name, true);
 	}
 
+	/**
+	 * Returns the number of parent contexts internalGet() will traverse to find the name.
+	 */
+	private int resolutionDepth(String name) {
+		if (localValueComputations.containsKey(name))
+			return 0;
+		int depth = 0;
+		for (EclipseContext context = this; context != null; context = context.getParent()) {
+			if (context.localValues.containsKey(name))
+				return depth;
+			depth++;
+		}
+		return depth - 1;
+	}
+
 	public Object internalGet(EclipseContext originatingContext, String name, boolean local) {
 		if (this == originatingContext) {
 			ValueComputation valueComputation = localValueComputations.get(name);
@@ -297,6 +323,7 @@ public class EclipseContext implements IEclipseContext {
 	public void remove(String name) {
 		if (isSetLocally(name)) {
 			Object oldValue = localValues.remove(name);
+			localValuesChanged();
 			Set<Scheduled> scheduled = new LinkedHashSet<Scheduled>();
 			invalidate(name, ContextChangeEvent.REMOVED, oldValue, IInjector.NOT_A_VALUE, scheduled);
 			processScheduled(scheduled);
@@ -336,6 +363,7 @@ public class EclipseContext implements IEclipseContext {
 		}
 		boolean containsKey = localValues.containsKey(name);
 		Object oldValue = localValues.put(name, value);
+		localValuesChanged();
 		if (!containsKey || oldValue != value) {
 			Set<Scheduled> scheduled = new LinkedHashSet<Scheduled>();
 			invalidate(name, ContextChangeEvent.ADDED, oldValue, value, scheduled);
@@ -370,6 +398,7 @@ public class EclipseContext implements IEclipseContext {
 				throw new IllegalArgumentException(tmp);
 			}
 			Object oldValue = localValues.put(name, value);
+			localValuesChanged();
 			if (oldValue != value)
 				invalidate(name, ContextChangeEvent.ADDED, oldValue, value, scheduled);
 			return true;
@@ -431,6 +460,7 @@ public class EclipseContext implements IEclipseContext {
 		if (localValues.containsKey(name))
 			return;
 		localValues.put(name, null);
+		localValuesChanged();
 	}
 
 	private boolean checkModifiable(String name) {
@@ -721,6 +751,56 @@ public class EclipseContext implements IEclipseContext {
 		return getActiveLeaf().get(name);
 	}
 
+	public IContextSnapshot snapshot() {
+		List<ContextSnapshot.Layer> layers = new ArrayList<ContextSnapshot.Layer>();
+		for (EclipseContext context = this; context != null; context = context.getParent())
+			layers.add(context.getSnapshotLayer());
+		// values of context functions are computed now, on the thread that owns the context
+		Map<String, Object> computed = new HashMap<String, Object>();
+		for (int i = 0; i < layers.size(); i++) {
+			names: for (String name : layers.get(i).functions) {
+				if (computed.containsKey(name))
+					continue;
+				for (int j = 0; j < i; j++) {
+					if (layers.get(j).values.containsKey(name))
+						continue names; // hidden by a closer value
+				}
+				ValueComputation computation = localValueComputations.get(name);
+				Object value = (computation == null) ? IInjector.NOT_A_VALUE : computation.getCachedValue();
+				if (value == IInjector.NOT_A_VALUE)
+					value = internalGet(this, name, false);
+				computed.put(name, value);
+			}
+		}
+		return new ContextSnapshot(computed, layers.toArray(new ContextSnapshot.Layer[layers.size()]));
+	}
+
+	/**
+	 * Returns an immutable copy of the local values. The copy is reused until the local
+	 * values change.
+	 */
+	private ContextSnapshot.Layer getSnapshotLayer() {
+		int version = localVersion.get(); // read before copying so that a concurrent change forces a new copy
+		ContextSnapshot.Layer layer = snapshotLayer;
+		if (layer != null && layer.version == version)
+			return layer;
+		Map<String, Object> values;
+		synchronized (localValues) {
+			values = new HashMap<String, Object>(localValues);
+		}
+		values.remove(PARENT);
+		layer = new ContextSnapshot.Layer(version, Collections.unmodifiableMap(values));
+		snapshotLayer = layer;
+		return layer;
+	}
+
+	/**
+	 * Must be called after each modification of the local values.
+	 */
+	protected void localValuesChanged() {
+		localVersion.incrementAndGet();
+	}
+
 	public WeakReference<Object> trackedWeakReference(Object object) {
 		return new WeakReference<Object>(object, referenceQueue);
 	}
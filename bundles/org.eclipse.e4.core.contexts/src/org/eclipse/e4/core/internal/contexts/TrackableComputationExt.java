@@ -12,6 +12,8 @@ package org.eclipse.e4.core.internal.contexts;
 
 import java.lang.ref.Reference;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import org.eclipse.e4.core.contexts.AsyncRunAndTrack;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.contexts.RunAndTrack;
 import org.eclipse.e4.core.internal.contexts.EclipseContext.Scheduled;
@@ -23,6 +25,10 @@ public class TrackableComputationExt extends Computation {
 
 	private ContextChangeEvent cachedEvent;
 
+	// asynchronous runnables: the latest event waiting for the executor, if any
+	private ContextChangeEvent pendingEvent; // guarded by this
+	private volatile boolean removed = false;
+
 	public TrackableComputationExt(RunAndTrack runnable, IEclipseContext originatingContext) {
 		this.runnable = runnable;
 		this.originatingContext = originatingContext;
@@ -86,7 +92,19 @@ public class TrackableComputationExt extends Computation {
 				return true;
 			}
 		}
+		if (runnable instanceof AsyncRunAndTrack) {
+			if ((eventType == ContextChangeEvent.ADDED) || (eventType == ContextChangeEvent.REMOVED)) {
+				schedule(event);
+				return true;
+			}
+		}
+		return run(event);
+	}
 
+	private boolean run(ContextChangeEvent event) {
+		int eventType = event.getEventType();
+		boolean profile = ContextProfiler.enabled;
+		long start = profile ? System.nanoTime() : 0;
 		((EclipseContext) originatingContext).pushComputation(this);
 		boolean result = true;
 		try {
@@ -112,21 +130,63 @@ public class TrackableComputationExt extends Computation {
 			}
 		} finally {
 			((EclipseContext) originatingContext).popComputation(this);
+			if (profile)
+				ContextProfiler.recordRun(runnable.getClass().getName(), System.nanoTime() - start);
 		}
 		EclipseContext eventsContext = (EclipseContext) event.getContext();
 
 		if (eventType == ContextChangeEvent.DISPOSE) {
 			if (originatingContext.equals(eventsContext)) {
+				removed = true;
 				((EclipseContext) originatingContext).removeRAT(this);
 				return false;
 			}
 		}
 		if (!result) {
+			removed = true;
 			((EclipseContext) originatingContext).removeRAT(this);
 		}
 		return result;
 	}
 
+	/**
+	 * Submits the asynchronous runnable to its executor unless a run is already pending,
+	 * in which case the event is folded into the pending run. If the executor rejects the
+	 * run, it is made on the calling thread.
+	 */
+	private void schedule(ContextChangeEvent event) {
+		AsyncRunAndTrack asyncRunnable = (AsyncRunAndTrack) runnable;
+		boolean merged;
+		synchronized (this) {
+			merged = (pendingEvent != null);
+			pendingEvent = event;
+		}
+		asyncRunnable.recordChange(merged);
+		if (merged)
+			return;
+		Runnable pendingRun = new Runnable() {
+			public void run() {
+				runPending();
+			}
+		};
+		try {
+			asyncRunnable.getExecutor().execute(pendingRun);
+		} catch (RejectedExecutionException e) {
+			runPending();
+		}
+	}
+
+	private void runPending() {
+		ContextChangeEvent latestEvent;
+		synchronized (this) {
+			latestEvent = pendingEvent;
+			pendingEvent = null; // changes from now on need another run
+		}
+		if (latestEvent == null || removed)
+			return;
+		run(latestEvent);
+	}
+
 	public String toString() {
 		return runnable.toString();
 	}
@@ -49,12 +49,26 @@ public class ValueComputation extends Computation {
 		return (containerDisposed || definitionChanged);
 	}
 
+	/**
+	 * Returns the value if it is computed and still valid, or {@link IInjector#NOT_A_VALUE}
+	 * if it needs to be computed. Never runs the function.
+	 */
+	public Object getCachedValue() {
+		Object value = cachedValue;
+		return (value == NotAValue) ? IInjector.NOT_A_VALUE : value;
+	}
+
 	public Object get() {
-		if (cachedValue != NotAValue)
+		if (cachedValue != NotAValue) {
+			if (ContextProfiler.enabled)
+				ContextProfiler.recordCacheHit(name);
 			return cachedValue;
+		}
 		if (this.computing)
 			throw new RuntimeException("Cycle while computing value" + this.toString()); //$NON-NLS-1$
 
+		boolean profile = ContextProfiler.enabled;
+		long start = profile ? System.nanoTime() : 0;
 		originatingContext.pushComputation(this);
 		computing = true;
 		try {
@@ -62,6 +76,8 @@ public class ValueComputation extends Computation {
 		} finally {
 			computing = false;
 			originatingContext.popComputation(this);
+			if (profile)
+				ContextProfiler.recordComputation(name, function.getClass().getName(), System.nanoTime() - start);
 		}
 		return cachedValue;
 	}
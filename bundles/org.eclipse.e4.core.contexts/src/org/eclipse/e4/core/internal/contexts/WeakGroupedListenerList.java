@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 IBM Corporation and others.
+ * Copyright (c) 2012, 2013 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,28 +11,42 @@
 
 package org.eclipse.e4.core.internal.contexts;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Listeners are held wrapped in weak references and are removed if no other [strong] reference 
+ * Listeners are held wrapped in weak references and are removed if no other [strong] reference
  * exists.
+ * <p>
+ * Groups are kept in concurrent maps so that readers don't need to lock the list. References
+ * cleared by the garbage collector are purged incrementally from the reference queue on the
+ * next modification or lookup.
+ * </p>
  */
 public class WeakGroupedListenerList {
 
 	public static class WeakComputationReference extends WeakReference<Computation> {
 
 		final private int hashCode;
+		final private String groupName;
 
 		public WeakComputationReference(Computation computation) {
 			super(computation);
 			hashCode = computation.hashCode();
+			groupName = null;
+		}
+
+		WeakComputationReference(Computation computation, String groupName, ReferenceQueue<Computation> queue) {
+			super(computation, queue);
+			hashCode = computation.hashCode();
+			this.groupName = groupName;
 		}
 
 		public int hashCode() {
@@ -54,90 +68,134 @@ public class WeakGroupedListenerList {
 		}
 	}
 
-	private Map<String, HashSet<WeakComputationReference>> listeners = new HashMap<String, HashSet<WeakComputationReference>>(10, 0.8f);
+	/**
+	 * Iterates over live listeners of a group without copying them. Stale entries
+	 * encountered along the way are removed.
+	 */
+	private class GroupIterator implements Iterator<Computation> {
+
+		final private Map<WeakComputationReference, Boolean> group;
+		final private Iterator<WeakComputationReference> refs;
+		private Computation next;
 
-	synchronized public void add(String groupName, Computation computation) {
-		HashSet<WeakComputationReference> nameListeners = listeners.get(groupName);
-		if (nameListeners == null) {
-			nameListeners = new HashSet<WeakComputationReference>(30, 0.75f);
-			nameListeners.add(new WeakComputationReference(computation));
-			listeners.put(groupName, nameListeners);
+		GroupIterator(Map<WeakComputationReference, Boolean> group) {
+			this.group = group;
+			this.refs = group.keySet().iterator();
+		}
+
+		public boolean hasNext() {
+			while (next == null && refs.hasNext()) {
+				WeakComputationReference ref = refs.next();
+				Computation computation = ref.get();
+				if (computation == null || !computation.isValid())
+					group.remove(ref); // do a clean-up while we are here
+				else
+					next = computation;
+			}
+			return next != null;
+		}
+
+		public Computation next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Computation result = next;
+			next = null;
+			return result;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
 		}
-		nameListeners.add(new WeakComputationReference(computation));
 	}
 
-	synchronized public void remove(Computation computation) {
+	final private ConcurrentHashMap<String, Map<WeakComputationReference, Boolean>> listeners = new ConcurrentHashMap<String, Map<WeakComputationReference, Boolean>>(10, 0.8f);
+
+	final private ReferenceQueue<Computation> queue = new ReferenceQueue<Computation>();
+
+	public void add(String groupName, Computation computation) {
+		purge();
+		WeakComputationReference ref = new WeakComputationReference(computation, groupName, queue);
+		while (true) {
+			Map<WeakComputationReference, Boolean> nameListeners = listeners.get(groupName);
+			if (nameListeners == null) {
+				Map<WeakComputationReference, Boolean> newListeners = new ConcurrentHashMap<WeakComputationReference, Boolean>(4, 0.75f, 2);
+				nameListeners = listeners.putIfAbsent(groupName, newListeners);
+				if (nameListeners == null)
+					nameListeners = newListeners;
+			}
+			if (nameListeners.containsKey(ref))
+				return;
+			nameListeners.put(ref, Boolean.TRUE);
+			// the group could have been dropped as empty while we were adding to it
+			if (listeners.get(groupName) == nameListeners)
+				return;
+		}
+	}
+
+	public void remove(Computation computation) {
 		WeakComputationReference ref = new WeakComputationReference(computation);
-		Collection<HashSet<WeakComputationReference>> allListeners = listeners.values();
-		for (HashSet<WeakComputationReference> group : allListeners) {
+		for (Map<WeakComputationReference, Boolean> group : listeners.values()) {
 			group.remove(ref);
 		}
 	}
 
-	synchronized public Set<String> getNames() {
-		Set<String> tmp = listeners.keySet(); // clone internal name list
-		Set<String> usedNames = new HashSet<String>(tmp.size());
-		usedNames.addAll(tmp);
-		return usedNames;
+	public Set<String> getNames() {
+		purge();
+		return new HashSet<String>(listeners.keySet()); // clone internal name list
 	}
 
-	synchronized public void clear() {
+	public void clear() {
 		listeners.clear();
 	}
 
-	synchronized public Set<Computation> getListeners() {
-		Collection<HashSet<WeakComputationReference>> collection = listeners.values();
+	public Set<Computation> getListeners() {
+		purge();
 		Set<Computation> result = new HashSet<Computation>();
-		for (HashSet<WeakComputationReference> set : collection) {
-			for (Iterator<WeakComputationReference> i = set.iterator(); i.hasNext();) {
-				WeakComputationReference ref = i.next();
-				Computation computation = ref.get();
-				if (computation == null || !computation.isValid()) {
-					i.remove(); // do a clean-up while we are here
-				} else
-					result.add(computation);
-			}
+		for (Map<WeakComputationReference, Boolean> group : listeners.values()) {
+			for (Iterator<Computation> i = new GroupIterator(group); i.hasNext();)
+				result.add(i.next());
 		}
 		return result;
 	}
 
-	synchronized public Set<Computation> getListeners(String groupName) {
-		HashSet<WeakComputationReference> tmp = listeners.get(groupName);
-		if (tmp == null)
+	public Set<Computation> getListeners(String groupName) {
+		Map<WeakComputationReference, Boolean> group = listeners.get(groupName);
+		if (group == null)
 			return null;
-		Set<Computation> result = new HashSet<Computation>(tmp.size());
-
-		for (Iterator<WeakComputationReference> i = tmp.iterator(); i.hasNext();) {
-			WeakComputationReference ref = i.next();
-			Computation computation = ref.get();
-			if (computation == null || !computation.isValid()) {
-				i.remove(); // do a clean-up while we are here
-			} else
-				result.add(computation);
-		}
+		Set<Computation> result = new HashSet<Computation>(group.size());
+		for (Iterator<Computation> i = new GroupIterator(group); i.hasNext();)
+			result.add(i.next());
 		return result;
 	}
 
-	synchronized public void cleanup() {
-		boolean cleanGroups = false;
-		for (HashSet<WeakComputationReference> set : listeners.values()) {
-			for (Iterator<WeakComputationReference> i = set.iterator(); i.hasNext();) {
+	public void cleanup() {
+		purge();
+		for (Map<WeakComputationReference, Boolean> group : listeners.values()) {
+			for (Iterator<WeakComputationReference> i = group.keySet().iterator(); i.hasNext();) {
 				WeakComputationReference ref = i.next();
 				Computation computation = ref.get();
 				if (computation == null || !computation.isValid())
 					i.remove();
 			}
-			if (set.isEmpty())
-				cleanGroups = true;
 		}
-		if (cleanGroups) {
-			Set<Entry<String, HashSet<WeakComputationReference>>> entries = listeners.entrySet();
-			for (Iterator<Entry<String, HashSet<WeakComputationReference>>> i = entries.iterator(); i.hasNext();) {
-				Entry<String, HashSet<WeakComputationReference>> entry = i.next();
-				HashSet<WeakComputationReference> value = entry.getValue();
-				if (value == null || value.isEmpty())
-					i.remove();
-			}
+		for (Map.Entry<String, Map<WeakComputationReference, Boolean>> entry : listeners.entrySet()) {
+			if (entry.getValue().isEmpty())
+				listeners.remove(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Removes references that were cleared by the garbage collector since the last call.
+	 */
+	private void purge() {
+		for (Reference<? extends Computation> ref = queue.poll(); ref != null; ref = queue.poll()) {
+			String groupName = ((WeakComputationReference) ref).groupName;
+			Map<WeakComputationReference, Boolean> group = listeners.get(groupName);
+			if (group == null)
+				continue;
+			group.remove(ref);
+			if (group.isEmpty())
+				listeners.remove(groupName, group);
 		}
 	}
 
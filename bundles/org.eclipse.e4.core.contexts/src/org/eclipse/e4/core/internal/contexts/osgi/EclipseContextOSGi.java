@@ -42,6 +42,7 @@ public class EclipseContextOSGi extends EclipseContext implements ServiceListene
 					String name = (String) existing[i].getProperty(IContextFunction.SERVICE_CONTEXT_KEY);
 					refs.put(name, existing[i]);
 					localValues.put(name, bundleContext.getService(existing[i]));
+					localValuesChanged();
 				}
 			}
 		} catch (InvalidSyntaxException e) {
@@ -69,6 +70,7 @@ public class EclipseContextOSGi extends EclipseContext implements ServiceListene
 			Object service = bundleContext.getService(ref);
 			bundleContext.ungetService(ref);
 			localValues.put(name, service);
+			localValuesChanged();
 			return service;
 		}
 		ServiceReference<?> ref = bundleContext.getServiceReference(name);
@@ -79,6 +81,7 @@ public class EclipseContextOSGi extends EclipseContext implements ServiceListene
 		refs.put(name, ref);
 		Object service = bundleContext.getService(ref);
 		localValues.put(name, service);
+		localValuesChanged();
 		return service;
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 IBM Corporation and others.
+ * Copyright (c) 2010, 2013 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,12 +10,11 @@
  *******************************************************************************/
 package org.eclipse.e4.core.di.extensions;
 
+import java.util.Collections;
 import java.util.Dictionary;
-import java.util.Hashtable;
 import java.util.Map;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
-import org.osgi.service.event.EventConstants;
 
 /**
  * DOC: no instantiate, no extend
@@ -50,11 +49,10 @@ final public class EventUtils {
 		} else if (data instanceof Map<?, ?>) {
 			event = new Event(topic, (Map<String, ?>) data);
 		} else {
-			Dictionary<String, Object> d = new Hashtable<String, Object>(2);
-			d.put(EventConstants.EVENT_TOPIC, topic);
-			if (data != null)
-				d.put(DATA, data);
-			event = new Event(topic, d);
+			// the event copies its properties; don't build an intermediate dictionary. The
+			// topic is always a property of the event and doesn't need to be passed
+			Map<String, ?> properties = (data == null) ? null : Collections.singletonMap(DATA, data);
+			event = new Event(topic, properties);
 		}
 		return event;
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2012 IBM Corporation and others.
+ * Copyright (c) 2010, 2013 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,13 +13,13 @@ package org.eclipse.e4.core.di.internal.extensions;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.Collection;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.PreDestroy;
 import org.eclipse.e4.core.di.IInjector;
 import org.eclipse.e4.core.di.InjectionException;
@@ -28,6 +28,7 @@ import org.eclipse.e4.core.di.extensions.EventUtils;
 import org.eclipse.e4.core.di.suppliers.ExtendedObjectSupplier;
 import org.eclipse.e4.core.di.suppliers.IObjectDescriptor;
 import org.eclipse.e4.core.di.suppliers.IRequestor;
+import org.eclipse.e4.core.internal.di.Requestor;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.BundleException;
@@ -58,7 +59,12 @@ public class EventObjectSupplier extends ExtendedObjectSupplier {
 		}
 	}
 
-	protected Map<String, Event> currentEvents = new HashMap<String, Event>();
+	// events being delivered on the current thread; each delivery only sees its own event
+	final private ThreadLocal<Map<String, Event>> currentEvents = new ThreadLocal<Map<String, Event>>() {
+		protected Map<String, Event> initialValue() {
+			return new HashMap<String, Event>(4);
+		}
+	};
 
 	class DIEventHandler implements EventHandler {
 
@@ -76,74 +82,113 @@ public class EventObjectSupplier extends ExtendedObjectSupplier {
 				return;
 			}
 
-			addCurrentEvent(topic, event);
-			requestor.resolveArguments(false);
-			removeCurrentEvent(topic);
-
-			requestor.execute();
+			// The requestor keeps the arguments it resolved until it is executed, so resolving
+			// is done one event at a time, whatever the topic. The arguments are taken from the
+			// requestor before it is executed, so that the lock is not held while executing it.
+			Object[] args;
+			synchronized (requestor) {
+				addCurrentEvent(topic, event);
+				try {
+					requestor.resolveArguments(false);
+				} finally {
+					removeCurrentEvent(topic);
+				}
+				if (!(requestor instanceof Requestor)) {
+					requestor.execute();
+					return;
+				}
+				args = ((Requestor) requestor).takeResolvedArgs();
+			}
+			((Requestor) requestor).execute(args);
 		}
 	}
 
-	// A combo of { IRequestor + topic } used in Map lookups
-	static private class Subscriber {
-		private IRequestor requestor;
-		private String topic;
+	/**
+	 * The single event handler registered with the event admin for a topic. Events are
+	 * dispatched to the handlers of the requestors subscribed to that topic.
+	 */
+	private class TopicHandler implements EventHandler {
 
-		public Subscriber(IRequestor requestor, String topic) {
-			super();
-			this.requestor = requestor;
-			this.topic = topic;
-		}
+		final private String topic;
+		final private Map<IRequestor, EventHandler> handlers = new ConcurrentHashMap<IRequestor, EventHandler>(4, 0.75f, 2);
+		// guarded by this
+		private ServiceRegistration registration;
+		private boolean registered = false;
+		private boolean disposed = false;
 
-		@Override
-		public int hashCode() {
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + ((requestor == null) ? 0 : requestor.hashCode());
-			result = prime * result + ((topic == null) ? 0 : topic.hashCode());
-			return result;
+		public TopicHandler(String topic) {
+			this.topic = topic;
 		}
 
-		public IRequestor getRequestor() {
-			return requestor;
+		public void handleEvent(Event event) {
+			for (EventHandler handler : handlers.values()) {
+				handler.handleEvent(event);
+			}
 		}
 
-		@Override
-		public boolean equals(Object obj) {
-			if (this == obj)
-				return true;
-			if (obj == null)
-				return false;
-			if (getClass() != obj.getClass())
-				return false;
-			Subscriber other = (Subscriber) obj;
-			if (requestor == null) {
-				if (other.requestor != null)
-					return false;
-			} else if (!requestor.equals(other.requestor))
-				return false;
-			if (topic == null) {
-				if (other.topic != null)
+		/**
+		 * Returns <code>false</code> if this handler was disposed and a new one needs to be used.
+		 */
+		boolean add(IRequestor requestor, BundleContext bundleContext) {
+			synchronized (this) {
+				if (disposed)
 					return false;
-			} else if (!topic.equals(other.topic))
-				return false;
+				if (handlers.containsKey(requestor))
+					return true;
+				handlers.put(requestor, makeHandler(topic, requestor));
+				if (registered)
+					return true;
+				registered = true;
+			}
+			// the framework calls service listeners while registering; don't hold the lock
+			String[] topics = new String[] {topic};
+			Dictionary<String, Object> d = new Hashtable<String, Object>();
+			d.put(EventConstants.EVENT_TOPIC, topics);
+			ServiceRegistration newRegistration = bundleContext.registerService(EventHandler.class.getName(), this, d);
+			synchronized (this) {
+				if (!disposed) {
+					registration = newRegistration;
+					return true;
+				}
+			}
+			newRegistration.unregister(); // disposed while registering
 			return true;
 		}
 
+		void remove(IRequestor requestor) {
+			synchronized (this) {
+				if (handlers.remove(requestor) == null || !handlers.isEmpty())
+					return;
+				disposed = true;
+			}
+			topicHandlers.remove(topic, this);
+			dispose();
+		}
+
+		void dispose() {
+			ServiceRegistration oldRegistration;
+			synchronized (this) {
+				disposed = true;
+				handlers.clear();
+				oldRegistration = registration;
+				registration = null;
+			}
+			if (oldRegistration != null)
+				oldRegistration.unregister();
+		}
 	}
 
-	private Map<Subscriber, ServiceRegistration> registrations = new HashMap<Subscriber, ServiceRegistration>();
+	final private ConcurrentMap<String, TopicHandler> topicHandlers = new ConcurrentHashMap<String, TopicHandler>();
+
+	// topics each requestor is subscribed to
+	final private ConcurrentMap<IRequestor, Map<String, Boolean>> subscriptions = new ConcurrentHashMap<IRequestor, Map<String, Boolean>>();
 
 	protected void addCurrentEvent(String topic, Event event) {
-		synchronized (currentEvents) {
-			currentEvents.put(topic, event);
-		}
+		currentEvents.get().put(topic, event);
 	}
 
 	protected void removeCurrentEvent(String topic) {
-		synchronized (currentEvents) {
-			currentEvents.remove(topic);
-		}
+		currentEvents.get().remove(topic);
 	}
 
 	@Override
@@ -160,34 +205,44 @@ public class EventObjectSupplier extends ExtendedObjectSupplier {
 		else
 			unsubscribe(requestor);
 
-		if (!currentEvents.containsKey(topic))
+		Event event = currentEvents.get().get(topic);
+		if (event == null)
 			return IInjector.NOT_A_VALUE;
 
 		// convert to fit destination
 		Class<?> descriptorsClass = getDesiredClass(descriptor.getDesiredType());
 		if (descriptorsClass.equals(Event.class))
-			return currentEvents.get(topic);
-		return currentEvents.get(topic).getProperty(EventUtils.DATA);
+			return event;
+		return event.getProperty(EventUtils.DATA);
 	}
 
 	private void subscribe(String topic, EventAdmin eventAdmin, IRequestor requestor) {
-		Subscriber subscriber = new Subscriber(requestor, topic);
-		synchronized (registrations) {
-			if (registrations.containsKey(subscriber))
-				return;
-		}
+		Map<String, Boolean> topics = subscriptions.get(requestor);
+		if (topics != null && topics.containsKey(topic))
+			return;
 		BundleContext bundleContext = DIEActivator.getDefault().getBundleContext();
 		if (bundleContext == null)
 			throw new InjectionException("Unable to subscribe to events: org.eclipse.e4.core.di.extensions bundle is not activated"); //$NON-NLS-1$
 
-		String[] topics = new String[] {topic};
-		Dictionary<String, Object> d = new Hashtable<String, Object>();
-		d.put(EventConstants.EVENT_TOPIC, topics);
-		EventHandler wrappedHandler = makeHandler(topic, requestor);
-		ServiceRegistration registration = bundleContext.registerService(EventHandler.class.getName(), wrappedHandler, d);
-		// due to the way requestors are constructed this limited synch should be OK
-		synchronized (registrations) {
-			registrations.put(subscriber, registration);
+		if (topics == null) {
+			Map<String, Boolean> newTopics = new ConcurrentHashMap<String, Boolean>(4, 0.75f, 2);
+			topics = subscriptions.putIfAbsent(requestor, newTopics);
+			if (topics == null)
+				topics = newTopics;
+		}
+		topics.put(topic, Boolean.TRUE);
+		while (true) {
+			TopicHandler handler = topicHandlers.get(topic);
+			if (handler == null) {
+				TopicHandler newHandler = new TopicHandler(topic);
+				handler = topicHandlers.putIfAbsent(topic, newHandler);
+				if (handler == null)
+					handler = newHandler;
+			}
+			if (handler.add(requestor, bundleContext))
+				return;
+			// the handler was disposed as we were adding to it
+			topicHandlers.remove(topic, handler);
 		}
 	}
 
@@ -209,30 +264,23 @@ public class EventObjectSupplier extends ExtendedObjectSupplier {
 	protected void unsubscribe(IRequestor requestor) {
 		if (requestor == null)
 			return;
-		synchronized (registrations) {
-			Iterator<Entry<Subscriber, ServiceRegistration>> i = registrations.entrySet().iterator();
-			while (i.hasNext()) {
-				Entry<Subscriber, ServiceRegistration> entry = i.next();
-				Subscriber key = entry.getKey();
-				if (!requestor.equals(key.getRequestor()))
-					continue;
-				ServiceRegistration registration = entry.getValue();
-				registration.unregister();
-				i.remove();
-			}
+		Map<String, Boolean> topics = subscriptions.remove(requestor);
+		if (topics == null)
+			return;
+		for (String topic : topics.keySet()) {
+			TopicHandler handler = topicHandlers.get(topic);
+			if (handler != null)
+				handler.remove(requestor);
 		}
 	}
 
 	@PreDestroy
 	public void dispose() {
-		ServiceRegistration[] array;
-		synchronized (registrations) {
-			Collection<ServiceRegistration> values = registrations.values();
-			array = values.toArray(new ServiceRegistration[values.size()]);
-			registrations.clear();
-		}
-		for (int i = 0; i < array.length; i++) {
-			array[i].unregister();
+		subscriptions.clear();
+		for (Iterator<TopicHandler> i = topicHandlers.values().iterator(); i.hasNext();) {
+			TopicHandler handler = i.next();
+			i.remove();
+			handler.dispose();
 		}
 	}
 
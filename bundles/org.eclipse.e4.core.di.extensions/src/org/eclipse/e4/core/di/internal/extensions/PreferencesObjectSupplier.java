@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2012 IBM Corporation and others.
+ * Copyright (c) 2010, 2013 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,14 +12,18 @@ package org.eclipse.e4.core.di.internal.extensions;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.eclipse.core.runtime.preferences.ConfigurationScope;
+import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.INodeChangeListener;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.NodeChangeEvent;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
 import org.eclipse.core.runtime.preferences.IPreferencesService;
+import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.e4.core.di.IInjector;
 import org.eclipse.e4.core.di.extensions.Preference;
@@ -27,41 +31,162 @@ import org.eclipse.e4.core.di.suppliers.ExtendedObjectSupplier;
 import org.eclipse.e4.core.di.suppliers.IObjectDescriptor;
 import org.eclipse.e4.core.di.suppliers.IRequestor;
 import org.osgi.framework.FrameworkUtil;
+import org.osgi.service.prefs.BackingStoreException;
+import org.osgi.service.prefs.Preferences;
 
 /**
  * Note: we do not support byte arrays in preferences at this time.
  */
 public class PreferencesObjectSupplier extends ExtendedObjectSupplier {
 
-	static private class PrefInjectionListener implements IPreferenceChangeListener {
+	/**
+	 * Requestors and converted values of one preference key.
+	 */
+	static private class KeyEntry {
 
-		final private IRequestor requestor;
-		final private IEclipsePreferences node;
+		final private Map<IRequestor, Boolean> requestors = new ConcurrentHashMap<IRequestor, Boolean>(4, 0.75f, 2);
+		final private Map<Class<?>, Object> values = new ConcurrentHashMap<Class<?>, Object>(4, 0.75f, 2);
+		private int version = 0; // guarded by this
 
-		public PrefInjectionListener(IEclipsePreferences node, IRequestor requestor) {
-			this.node = node;
-			this.requestor = requestor;
+		public synchronized int getVersion() {
+			return version;
 		}
 
-		public void preferenceChange(PreferenceChangeEvent event) {
-			if (!requestor.isValid()) {
+		public synchronized void cacheValue(Class<?> type, Object value, int valueVersion) {
+			if (version == valueVersion) // don't cache values read before a change
+				values.put(type, value == null ? NULL_VALUE : value);
+		}
+
+		public synchronized void invalidate() {
+			version++;
+			values.clear();
+		}
+	}
+
+	/**
+	 * The single listener for a node. Changes are dispatched to the requestors of the changed key.
+	 * When the node is removed, the listener moves to the node that replaces it and all the
+	 * requestors of the node are updated.
+	 */
+	static private class NodeListener implements IPreferenceChangeListener, INodeChangeListener {
+
+		// values are looked up in the instance, configuration and default scopes
+		final static private IScopeContext[] SCOPES = new IScopeContext[] {InstanceScope.INSTANCE, ConfigurationScope.INSTANCE, DefaultScope.INSTANCE};
+
+		final private String nodePath;
+		final private IEclipsePreferences[] nodes = new IEclipsePreferences[SCOPES.length]; // guarded by this
+		final private ConcurrentMap<String, KeyEntry> keys = new ConcurrentHashMap<String, KeyEntry>(4, 0.75f, 2);
+
+		public NodeListener(String nodePath) {
+			this.nodePath = nodePath;
+			for (int i = 0; i < SCOPES.length; i++)
+				attach(i);
+		}
+
+		private void attach(int scope) {
+			IEclipsePreferences node = SCOPES[scope].getNode(nodePath);
+			nodes[scope] = node;
+			node.addPreferenceChangeListener(this);
+			Preferences parent = node.parent();
+			if (parent instanceof IEclipsePreferences)
+				((IEclipsePreferences) parent).addNodeChangeListener(this);
+		}
+
+		private void detach(int scope) {
+			IEclipsePreferences node = nodes[scope];
+			try {
 				node.removePreferenceChangeListener(this);
-				return;
+				Preferences parent = node.parent();
+				if (parent instanceof IEclipsePreferences)
+					((IEclipsePreferences) parent).removeNodeChangeListener(this);
+			} catch (IllegalStateException e) {
+				// the node or its parent has been removed
+			}
+		}
+
+		/**
+		 * Moves the listener to the nodes that replace the removed ones.
+		 * 
+		 * @return <code>true</code> if a node had been removed
+		 */
+		private synchronized boolean checkNodes() {
+			boolean removed = false;
+			for (int i = 0; i < nodes.length; i++) {
+				if (exists(nodes[i]))
+					continue;
+				detach(i);
+				attach(i);
+				removed = true;
+			}
+			if (removed) {
+				for (KeyEntry entry : keys.values())
+					entry.invalidate();
 			}
-			requestor.resolveArguments(false);
-			requestor.execute();
+			return removed;
 		}
 
-		public IRequestor getRequestor() {
-			return requestor;
+		static private boolean exists(IEclipsePreferences node) {
+			try {
+				return node.nodeExists(""); //$NON-NLS-1$
+			} catch (BackingStoreException e) {
+				return false;
+			}
+		}
+
+		public KeyEntry getEntry(String key) {
+			KeyEntry entry = keys.get(key);
+			if (entry == null) {
+				KeyEntry newEntry = new KeyEntry();
+				entry = keys.putIfAbsent(key, newEntry);
+				if (entry == null)
+					entry = newEntry;
+			}
+			return entry;
 		}
 
-		public void stopListening() {
-			node.removePreferenceChangeListener(this);
+		public void preferenceChange(PreferenceChangeEvent event) {
+			KeyEntry entry = keys.get(event.getKey());
+			if (entry == null)
+				return;
+			entry.invalidate();
+			update(entry);
+		}
+
+		public void added(NodeChangeEvent event) {
+			// nothing to do: a node is added before it can be removed
+		}
+
+		public void removed(NodeChangeEvent event) {
+			// called for the removal of any child of the parent nodes; removing an ancestor
+			// removes the node through its parent as well
+			if (!checkNodes())
+				return;
+			// the values of the removed node are gone
+			for (KeyEntry entry : keys.values())
+				update(entry);
+		}
+
+		private void update(KeyEntry entry) {
+			for (IRequestor requestor : entry.requestors.keySet()) {
+				if (!requestor.isValid()) {
+					entry.requestors.remove(requestor);
+					continue;
+				}
+				requestor.resolveArguments(false);
+				requestor.execute();
+			}
+		}
+
+		public synchronized void stopListening() {
+			for (int i = 0; i < nodes.length; i++)
+				detach(i);
 		}
 	}
 
-	private Map<String, List<PrefInjectionListener>> listenerCache = new HashMap<String, List<PrefInjectionListener>>();
+	// placeholder for cached null values
+	final static private Object NULL_VALUE = new Object();
+
+	final private ConcurrentMap<String, NodeListener> listeners = new ConcurrentHashMap<String, NodeListener>();
 
 	public PreferencesObjectSupplier() {
 		DIEActivator.getDefault().registerPreferencesSupplier(this);
@@ -80,9 +205,31 @@ public class PreferencesObjectSupplier extends ExtendedObjectSupplier {
 		String key = getKey(descriptor);
 		if (key == null || nodePath == null || key.length() == 0 || nodePath.length() == 0)
 			return IInjector.NOT_A_VALUE;
-		if (track)
-			addListener(nodePath, requestor);
 
+		KeyEntry entry;
+		if (track && requestor != null) {
+			entry = getListener(nodePath).getEntry(key);
+			entry.requestors.put(requestor, Boolean.TRUE);
+		} else {
+			// don't start listening for one-shot lookups; use the values cached for other requestors
+			NodeListener listener = listeners.get(nodePath);
+			entry = (listener == null) ? null : listener.keys.get(key);
+			if (entry == null)
+				return getValue(nodePath, key, descriptorsClass);
+			if (requestor != null)
+				entry.requestors.remove(requestor);
+		}
+
+		Object value = entry.values.get(descriptorsClass);
+		if (value != null)
+			return (value == NULL_VALUE) ? null : value;
+		int version = entry.getVersion();
+		value = getValue(nodePath, key, descriptorsClass);
+		entry.cacheValue(descriptorsClass, value, version);
+		return value;
+	}
+
+	private Object getValue(String nodePath, String key, Class<?> descriptorsClass) {
 		if (descriptorsClass.isPrimitive()) {
 			if (descriptorsClass.equals(boolean.class))
 				return getPreferencesService().getBoolean(nodePath, key, false, null);
@@ -100,8 +247,6 @@ public class PreferencesObjectSupplier extends ExtendedObjectSupplier {
 			return getPreferencesService().getString(nodePath, key, null, null);
 		else if (Boolean.class.equals(descriptorsClass))
 			return getPreferencesService().getBoolean(nodePath, key, false, null);
-		else if (Boolean.class.equals(descriptorsClass))
-			return getPreferencesService().getBoolean(nodePath, key, false, null);
 		else if (Integer.class.equals(descriptorsClass))
 			return getPreferencesService().getInt(nodePath, key, 0, null);
 		else if (Double.class.equals(descriptorsClass))
@@ -150,43 +295,26 @@ public class PreferencesObjectSupplier extends ExtendedObjectSupplier {
 		return DIEActivator.getDefault().getPreferencesService();
 	}
 
-	private void addListener(String nodePath, final IRequestor requestor) {
-		if (requestor == null)
-			return;
-		synchronized (listenerCache) {
-			if (listenerCache.containsKey(nodePath)) {
-				for (PrefInjectionListener listener : listenerCache.get(nodePath)) {
-					IRequestor previousRequestor = listener.getRequestor();
-					if (previousRequestor.equals(requestor))
-						return; // avoid adding duplicate listeners
-				}
-			}
-		}
-		final IEclipsePreferences node = InstanceScope.INSTANCE.getNode(nodePath);
-		PrefInjectionListener listener = new PrefInjectionListener(node, requestor);
-		node.addPreferenceChangeListener(listener);
-
-		synchronized (listenerCache) {
-			if (listenerCache.containsKey(nodePath))
-				listenerCache.get(nodePath).add(listener);
-			else {
-				List<PrefInjectionListener> listeningRequestors = new ArrayList<PrefInjectionListener>();
-				listeningRequestors.add(listener);
-				listenerCache.put(nodePath, listeningRequestors);
+	private NodeListener getListener(String nodePath) {
+		NodeListener listener = listeners.get(nodePath);
+		if (listener != null)
+			return listener;
+		synchronized (listeners) { // only add one preference listener per node
+			listener = listeners.get(nodePath);
+			if (listener == null) {
+				listener = new NodeListener(nodePath);
+				listeners.put(nodePath, listener);
 			}
 		}
+		return listener;
 	}
 
 	public void removeAllListeners() {
-		synchronized (listenerCache) {
-			for (List<PrefInjectionListener> listeners : listenerCache.values()) {
-				if (listeners == null)
-					continue;
-				for (PrefInjectionListener listener : listeners) {
-					listener.stopListening();
-				}
+		synchronized (listeners) {
+			for (NodeListener listener : listeners.values()) {
+				listener.stopListening();
 			}
-			listenerCache.clear();
+			listeners.clear();
 		}
 	}
 
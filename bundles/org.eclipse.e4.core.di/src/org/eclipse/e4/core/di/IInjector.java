@@ -11,6 +11,7 @@
 package org.eclipse.e4.core.di;
 
 import java.lang.annotation.Annotation;
+import java.util.concurrent.Executor;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Scope;
@@ -168,4 +169,22 @@ public interface IInjector {
 	 * @since 1.2
 	 */
 	public void setDefaultSupplier(PrimaryObjectSupplier objectSupplier);
+
+	/**
+	 * Specifies executor used to create dependencies in parallel. When several objects
+	 * have to be created to satisfy a constructor, a method, or the fields of an object -
+	 * for instance, bound or {@link org.eclipse.e4.core.di.annotations.Creatable} classes -
+	 * they are created concurrently on the executor while the calling thread waits.
+	 * <p>
+	 * Object suppliers, such as contexts, are not safe to use from multiple threads: when a
+	 * primary or temporary object supplier takes part, the arguments are resolved and the
+	 * created objects injected on the calling thread, and only the constructors run on the
+	 * executor. By default, no executor is set and dependencies are created one at a time on
+	 * the calling thread.
+	 * </p>
+	 * @param executor the executor used to create dependencies in parallel,
+	 * or <code>null</code> to create them on the calling thread
+	 * @since 1.3
+	 */
+	public void setCreationExecutor(Executor executor);
 }
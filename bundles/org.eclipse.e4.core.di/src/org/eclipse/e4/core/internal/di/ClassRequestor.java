@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.e4.core.internal.di;
 
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import javax.inject.Named;
 import org.eclipse.e4.core.di.IInjector;
@@ -33,12 +34,12 @@ public class ClassRequestor extends Requestor {
 	final private String clazzName;
 
 	public ClassRequestor(Class<?> clazz, IInjector injector, PrimaryObjectSupplier primarySupplier, PrimaryObjectSupplier tempSupplier, Object requestingObject, boolean track) {
-		super(null, injector, primarySupplier, tempSupplier, requestingObject, track);
+		super((AccessibleObject) null, injector, primarySupplier, tempSupplier, requestingObject, track);
 		clazzName = (clazz == null) ? null : clazz.getSimpleName();
 	}
 
-	public Object execute() throws InjectionException {
-		clearResolvedArgs();
+	public Object execute(Object[] args) throws InjectionException {
+		clearArgs(args);
 		return null;
 	}
 
@@ -11,6 +11,7 @@
 package org.eclipse.e4.core.internal.di;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Type;
@@ -24,24 +25,26 @@ public class ConstructorRequestor extends Requestor {
 	final private Constructor<?> constructor;
 
 	public ConstructorRequestor(Constructor<?> constructor, IInjector injector, PrimaryObjectSupplier primarySupplier, PrimaryObjectSupplier tempSupplier) {
-		super(null, injector, primarySupplier, tempSupplier, null, false /* do not track */);
+		super((AccessibleObject) null, injector, primarySupplier, tempSupplier, null, false /* do not track */);
 		this.constructor = constructor;
 	}
 
-	public Object execute() throws InjectionException {
+	public ConstructorRequestor(InjectionPlan.Member member, IInjector injector, PrimaryObjectSupplier primarySupplier, PrimaryObjectSupplier tempSupplier) {
+		super(member, injector, primarySupplier, tempSupplier, null, false /* do not track */);
+		this.constructor = (Constructor<?>) member.member;
+	}
+
+	public Object execute(Object[] args) throws InjectionException {
 		Object result = null;
-		boolean wasAccessible = true;
-		if (!constructor.isAccessible()) {
-			constructor.setAccessible(true);
-			wasAccessible = false;
-		}
+		if (!constructor.isAccessible())
+			constructor.setAccessible(true); // left on, see InjectionPlan.Member
 		boolean pausedRecording = false;
 		if ((primarySupplier != null)) {
 			primarySupplier.pauseRecording();
 			pausedRecording = true;
 		}
 		try {
-			result = constructor.newInstance(actualArgs);
+			result = constructor.newInstance(args);
 		} catch (IllegalArgumentException e) {
 			throw new InjectionException(e);
 		} catch (InstantiationException e) {
@@ -52,11 +55,9 @@ public class ConstructorRequestor extends Requestor {
 			Throwable originalException = e.getCause();
 			throw new InjectionException((originalException != null) ? originalException : e);
 		} finally {
-			if (!wasAccessible)
-				constructor.setAccessible(false);
 			if (pausedRecording)
 				primarySupplier.resumeRecording();
-			clearResolvedArgs();
+			clearArgs(args);
 		}
 		return result;
 	}
@@ -25,14 +25,32 @@ public class FieldRequestor extends Requestor {
 		this.field = field;
 	}
 
-	public Object execute() throws InjectionException {
-		if (actualArgs == null)
+	public FieldRequestor(InjectionPlan.Member member, IInjector injector, PrimaryObjectSupplier primarySupplier, PrimaryObjectSupplier tempSupplier, Object requestingObject, boolean track) {
+		super(member, injector, primarySupplier, tempSupplier, requestingObject, track);
+		this.field = (Field) member.member;
+	}
+
+	public Object execute(Object[] args) throws InjectionException {
+		if (args == null)
 			return null; // optional field
-		setField(field, actualArgs[0]);
-		clearResolvedArgs();
+		setField(field, args[0]);
+		clearArgs(args);
 		return null;
 	}
 
+	protected boolean argumentsChanged() {
+		Object userObject = getRequestingObject();
+		if (userObject == null)
+			return false;
+		if (!field.isAccessible())
+			return true; // don't bother with granting access just to compare
+		try {
+			return field.get(userObject) != actualArgs[0];
+		} catch (IllegalAccessException e) {
+			return true;
+		}
+	}
+
 	protected IObjectDescriptor[] calcDependentObjects() {
 		IObjectDescriptor objectDescriptor = new ObjectDescriptor(field.getGenericType(), field.getAnnotations());
 		return new IObjectDescriptor[] {objectDescriptor};
@@ -42,20 +60,14 @@ public class FieldRequestor extends Requestor {
 		Object userObject = getRequestingObject();
 		if (userObject == null)
 			return false;
-		boolean wasAccessible = true;
-		if (!field.isAccessible()) {
-			field.setAccessible(true);
-			wasAccessible = false;
-		}
+		if (!field.isAccessible())
+			field.setAccessible(true); // left on, see InjectionPlan.Member
 		try {
 			field.set(userObject, value);
 		} catch (IllegalArgumentException e) {
 			throw new InjectionException(e);
 		} catch (IllegalAccessException e) {
 			throw new InjectionException(e);
-		} finally {
-			if (!wasAccessible)
-				field.setAccessible(false);
 		}
 		return true;
 	}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.core.internal.di;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.eclipse.e4.core.di.annotations.GroupUpdates;
+import org.eclipse.e4.core.di.annotations.Optional;
+import org.eclipse.e4.core.di.suppliers.IObjectDescriptor;
+
+/**
+ * The injectable members of a class, collected once so that repeated injections
+ * don't need to walk the class hierarchy with reflection. Plans only describe
+ * the class; all per-object and per-supplier state is kept in the requestors.
+ */
+public class InjectionPlan {
+
+	/**
+	 * An injectable field, method, or constructor with its precomputed descriptors.
+	 */
+	static public class Member {
+
+		final public AccessibleObject member;
+		final public boolean isStatic;
+		final public boolean optional;
+		final public boolean groupUpdates;
+		final public IObjectDescriptor[] descriptors;
+
+		/**
+		 * @param annotated <code>false</code> to ignore @Optional and @GroupUpdates on the member,
+		 * as it is done for constructors 
+		 */
+		public Member(AccessibleObject member, boolean isStatic, boolean annotated, IObjectDescriptor[] descriptors) {
+			this.member = member;
+			this.isStatic = isStatic;
+			this.optional = annotated && member.isAnnotationPresent(Optional.class);
+			this.groupUpdates = annotated && member.isAnnotationPresent(GroupUpdates.class);
+			this.descriptors = descriptors;
+			// Grant access once rather than toggling it on every injection. Toggling is both slow
+			// and unsafe when the same member is injected from several threads. If the security
+			// manager refuses, requestors try again when the member is used. Members that are not
+			// part of a plan are made accessible the same way by their requestors.
+			if (!member.isAccessible()) {
+				try {
+					member.setAccessible(true);
+				} catch (SecurityException e) {
+					// use per-call access
+				}
+			}
+		}
+	}
+
+	/**
+	 * Members declared by one class of the hierarchy.
+	 */
+	static public class ClassLevel {
+
+		final public Class<?> declaringClass;
+		/**
+		 * If the class declares any static fields or methods. Those are only injected
+		 * the first time the class is processed.
+		 */
+		final public boolean hasStatic;
+		final public Member[] fields;
+		final public Member[] methods; // not overridden in subclasses
+
+		public ClassLevel(Class<?> declaringClass, boolean hasStatic, Member[] fields, Member[] methods) {
+			this.declaringClass = declaringClass;
+			this.hasStatic = hasStatic;
+			this.fields = fields;
+			this.methods = methods;
+		}
+	}
+
+	final public boolean isSingleton;
+	final public ClassLevel[] hierarchy; // superclasses first
+	final private Member[] postConstruct;
+	final private Member[] preDestroy;
+
+	// calculated on first use: only needed if the class is instantiated by the injector
+	private volatile Member[] constructors;
+
+	public InjectionPlan(boolean isSingleton, ClassLevel[] hierarchy, Member[] postConstruct, Member[] preDestroy) {
+		this.isSingleton = isSingleton;
+		this.hierarchy = hierarchy;
+		this.postConstruct = postConstruct;
+		this.preDestroy = preDestroy;
+	}
+
+	/**
+	 * Returns methods tagged with @PostConstruct or @PreDestroy, superclass methods first.
+	 */
+	public Member[] getAnnotated(Class<? extends Annotation> annotation) {
+		if (annotation == PostConstruct.class)
+			return postConstruct;
+		if (annotation == PreDestroy.class)
+			return preDestroy;
+		throw new IllegalArgumentException(annotation.getName());
+	}
+
+	/**
+	 * Returns injectable constructors sorted by descending number of arguments, or <code>null</code>
+	 * if they have not been calculated yet.
+	 */
+	public Member[] getConstructors() {
+		return constructors;
+	}
+
+	public void setConstructors(Member[] constructors) {
+		this.constructors = constructors;
+	}
+}
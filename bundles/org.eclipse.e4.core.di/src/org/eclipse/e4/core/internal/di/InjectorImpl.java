@@ -24,11 +24,18 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -66,19 +73,131 @@ public class InjectorImpl implements IInjector {
 	final private static Short DEFAULT_SHORT = new Short((short) 0);
 	final private static Byte DEFAULT_BYTE = new Byte((byte) 0);
 
-	private Map<PrimaryObjectSupplier, List<WeakReference<?>>> injectedObjects = new HashMap<PrimaryObjectSupplier, List<WeakReference<?>>>();
+	// key used for objects injected without a primary supplier
+	final private static Object NO_SUPPLIER = new Object();
+
+	private ConcurrentMap<Object, WeakIdentitySet> injectedObjects = new ConcurrentHashMap<Object, WeakIdentitySet>();
 	private Set<WeakReference<Class<?>>> injectedClasses = new HashSet<WeakReference<Class<?>>>();
-	private HashMap<Class<?>, Object> singletonCache = new HashMap<Class<?>, Object>();
-	private Map<Class<?>, Set<Binding>> bindings = new HashMap<Class<?>, Set<Binding>>();
+	// values are either singleton instances or SingletonCreation placeholders
+	private ConcurrentMap<Class<?>, Object> singletonCache = new ConcurrentHashMap<Class<?>, Object>();
+	// singleton creations or creation tasks that threads are currently waiting for; used to detect deadlocks
+	private Map<Thread, Object> waitingThreads = new HashMap<Thread, Object>();
+	// immutable; replaced as a whole when a binding is added
+	private volatile Map<Class<?>, ClassBindings> bindings = Collections.emptyMap();
+	final private Object bindingsLock = new Object();
 
 	// Performance improvement:
 	private Map<Class<?>, Method[]> methodsCache = new WeakHashMap<Class<?>, Method[]>();
-	private Map<Class<?>, Map<Method, Boolean>> isOverriddenCache = new WeakHashMap<Class<?>, Map<Method, Boolean>>();
+	private Map<Class<?>, InjectionPlan> plans = new WeakHashMap<Class<?>, InjectionPlan>();
+
+	private ThreadLocal<List<Class<?>>> classesBeingCreated = new ThreadLocal<List<Class<?>>>() {
+		protected List<Class<?>> initialValue() {
+			return new ArrayList<Class<?>>(5);
+		}
+	};
+
+	/**
+	 * Placeholder kept in the singleton cache while a singleton is being created. Other
+	 * threads asking for the same class wait for the creator instead of creating a second
+	 * instance.
+	 */
+	static private class SingletonCreation {
+		final Class<?> clazz;
+		final Thread creator = Thread.currentThread();
+		final CountDownLatch done = new CountDownLatch(1);
+		volatile Object instance;
+
+		SingletonCreation(Class<?> clazz) {
+			this.clazz = clazz;
+		}
+	}
+
+	/**
+	 * Bindings of one class keyed by qualifier name. Not modified once published.
+	 */
+	static private class ClassBindings {
+		final Map<String, Binding> named; // a null key is used for the unnamed binding
+		final Binding first; // used when no binding matches the name
+
+		ClassBindings(Map<String, Binding> named, Binding first) {
+			this.named = named;
+			this.first = first;
+		}
+	}
+
+	/**
+	 * Object that the injector needs to create to fill in an argument.
+	 */
+	static private class Creation {
+		final Object[] actualArgs;
+		final int index;
+		final Class<?> clazz;
+		final boolean required; // false: failure leaves the argument unresolved
+
+		Creation(Object[] actualArgs, int index, Class<?> clazz, boolean required) {
+			this.actualArgs = actualArgs;
+			this.index = index;
+			this.clazz = clazz;
+			this.required = required;
+		}
+	}
+
+	/**
+	 * Creates an object on behalf of another thread. The task continues the creation
+	 * stack of the thread that scheduled it so that recursive references are still detected.
+	 */
+	private class CreationTask implements Callable<Object> {
+		final private Class<?> clazz;
+		final private List<Class<?>> parentStack;
+		final private PrimaryObjectSupplier objectSupplier;
+		final private PrimaryObjectSupplier tempSupplier;
+		volatile Thread runner;
+
+		CreationTask(Class<?> clazz, List<Class<?>> parentStack, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier) {
+			this.clazz = clazz;
+			this.parentStack = parentStack;
+			this.objectSupplier = objectSupplier;
+			this.tempSupplier = tempSupplier;
+		}
+
+		public Object call() {
+			runner = Thread.currentThread();
+			List<Class<?>> savedStack = classesBeingCreated.get();
+			classesBeingCreated.set(new ArrayList<Class<?>>(parentStack));
+			try {
+				return internalMake(clazz, objectSupplier, tempSupplier);
+			} finally {
+				classesBeingCreated.set(savedStack);
+			}
+		}
+	}
+
+	/**
+	 * Object created with the help of suppliers. Its constructor arguments are resolved and the
+	 * object is injected on the calling thread; only the constructor may run on another thread.
+	 */
+	static private class Construction implements Callable<Object> {
+		final Class<?> clazz;
+		Object instance; // the object once constructed, or the existing singleton
+		ConstructorRequestor requestor;
+		Object[] args;
+		SingletonCreation creation; // placeholder reserved by the calling thread
+		volatile Thread runner;
+
+		Construction(Class<?> clazz) {
+			this.clazz = clazz;
+		}
 
-	private Set<Class<?>> classesBeingCreated = new HashSet<Class<?>>(5);
+		public Object call() {
+			runner = Thread.currentThread();
+			return requestor.execute(args);
+		}
+	}
 
 	private PrimaryObjectSupplier defaultSupplier;
 
+	private volatile Executor creationExecutor;
+
 	public void inject(Object object, PrimaryObjectSupplier objectSupplier) {
 		try {
 			inject(object, objectSupplier, null);
@@ -116,7 +235,7 @@ public class InjectorImpl implements IInjector {
 
 		// We call @PostConstruct after injection. This means that is is called 
 		// as a part of both #make() and #inject().
-		processAnnotated(PostConstruct.class, object, object.getClass(), objectSupplier, tempSupplier, new ArrayList<Class<?>>(5));
+		processAnnotated(PostConstruct.class, object, objectSupplier, tempSupplier);
 
 		// remove references to the temporary suppliers
 		for (Requestor requestor : requestors) {
@@ -125,58 +244,41 @@ public class InjectorImpl implements IInjector {
 	}
 
 	private void rememberInjectedObject(Object object, PrimaryObjectSupplier objectSupplier) {
-		synchronized (injectedObjects) {
-			List<WeakReference<?>> list;
-			if (!injectedObjects.containsKey(objectSupplier)) {
-				list = new ArrayList<WeakReference<?>>();
-				injectedObjects.put(objectSupplier, list);
-			} else
-				list = injectedObjects.get(objectSupplier);
-			for (WeakReference<?> ref : list) {
-				if (object == ref.get())
-					return; // we already have it
-			}
-			list.add(new WeakReference<Object>(object));
+		Object key = supplierKey(objectSupplier);
+		WeakIdentitySet objects = injectedObjects.get(key);
+		if (objects == null) {
+			WeakIdentitySet newObjects = new WeakIdentitySet(4);
+			objects = injectedObjects.putIfAbsent(key, newObjects);
+			if (objects == null)
+				objects = newObjects;
 		}
+		objects.add(object);
 	}
 
 	private boolean forgetInjectedObject(Object object, PrimaryObjectSupplier objectSupplier) {
-		synchronized (injectedObjects) {
-			if (!injectedObjects.containsKey(objectSupplier))
-				return false;
-			List<WeakReference<?>> list = injectedObjects.get(objectSupplier);
-			for (Iterator<WeakReference<?>> i = list.iterator(); i.hasNext();) {
-				WeakReference<?> ref = i.next();
-				if (object == ref.get()) {
-					i.remove();
-					return true;
-				}
-			}
+		WeakIdentitySet objects = injectedObjects.get(supplierKey(objectSupplier));
+		if (objects == null)
 			return false;
-		}
+		return objects.remove(object);
 	}
 
-	private List<WeakReference<?>> forgetSupplier(PrimaryObjectSupplier objectSupplier) {
-		synchronized (injectedObjects) {
-			if (!injectedObjects.containsKey(objectSupplier))
-				return null;
-			return injectedObjects.remove(objectSupplier);
-		}
+	private WeakIdentitySet forgetSupplier(PrimaryObjectSupplier objectSupplier) {
+		return injectedObjects.remove(supplierKey(objectSupplier));
 	}
 
-	private List<WeakReference<?>> getSupplierObjects(PrimaryObjectSupplier objectSupplier) {
-		synchronized (injectedObjects) {
-			if (!injectedObjects.containsKey(objectSupplier))
-				return null;
-			return injectedObjects.get(objectSupplier);
-		}
+	private WeakIdentitySet getSupplierObjects(PrimaryObjectSupplier objectSupplier) {
+		return injectedObjects.get(supplierKey(objectSupplier));
+	}
+
+	private Object supplierKey(PrimaryObjectSupplier objectSupplier) {
+		return (objectSupplier == null) ? NO_SUPPLIER : objectSupplier;
 	}
 
 	public void uninject(Object object, PrimaryObjectSupplier objectSupplier) {
 		try {
 			if (!forgetInjectedObject(object, objectSupplier))
 				return; // not injected at this time
-			processAnnotated(PreDestroy.class, object, object.getClass(), objectSupplier, null, new ArrayList<Class<?>>(5));
+			processAnnotated(PreDestroy.class, object, objectSupplier, null);
 
 			ArrayList<Requestor> requestors = new ArrayList<Requestor>();
 			processClassHierarchy(object, objectSupplier, null, true /* track */, false /* inverse order */, requestors);
@@ -285,43 +387,37 @@ public class InjectorImpl implements IInjector {
 	}
 
 	private Object internalMake(Class<?> clazz, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier) {
-		if (shouldDebug && classesBeingCreated.contains(clazz))
+		List<Class<?>> creationStack = classesBeingCreated.get();
+		boolean recursive = creationStack.contains(clazz);
+		if (shouldDebug && recursive)
 			LogHelper.logWarning("Possible recursive reference trying to create class \"" + clazz.getName() + "\".", null); //$NON-NLS-1$ //$NON-NLS-2$
+		SingletonCreation creation = null;
+		creationStack.add(clazz);
 		try {
-			if (shouldDebug)
-				classesBeingCreated.add(clazz);
-
-			boolean isSingleton = clazz.isAnnotationPresent(Singleton.class);
+			InjectionPlan plan = getPlan(clazz);
+			boolean isSingleton = plan.isSingleton;
 			if (isSingleton) {
-				synchronized (singletonCache) {
-					if (singletonCache.containsKey(clazz))
-						return singletonCache.get(clazz);
+				while (true) {
+					Object cached = singletonCache.get(clazz);
+					if (cached == null) {
+						creation = new SingletonCreation(clazz);
+						cached = singletonCache.putIfAbsent(clazz, creation);
+						if (cached == null)
+							break; // this thread creates the singleton
+						creation = null;
+					}
+					if (!(cached instanceof SingletonCreation))
+						return cached;
+					if (recursive) // the placeholder was left by this creation chain
+						throw new InjectionException("Recursive reference trying to create singleton " + creationPath(creationStack)); //$NON-NLS-1$
+					Object instance = awaitSingleton((SingletonCreation) cached);
+					if (instance != null)
+						return instance;
+					// creation failed in the other thread; try again in this one
 				}
 			}
 
-			Constructor<?>[] constructors = clazz.getDeclaredConstructors();
-			// Sort the constructors by descending number of constructor arguments
-			ArrayList<Constructor<?>> sortedConstructors = new ArrayList<Constructor<?>>(constructors.length);
-			for (Constructor<?> constructor : constructors)
-				sortedConstructors.add(constructor);
-			Collections.sort(sortedConstructors, new Comparator<Constructor<?>>() {
-				public int compare(Constructor<?> c1, Constructor<?> c2) {
-					int l1 = c1.getParameterTypes().length;
-					int l2 = c2.getParameterTypes().length;
-					return l2 - l1;
-				}
-			});
-
-			for (Constructor<?> constructor : sortedConstructors) {
-				// skip private and protected constructors; allow public and package visibility
-				int modifiers = constructor.getModifiers();
-				if (((modifiers & Modifier.PRIVATE) != 0) || ((modifiers & Modifier.PROTECTED) != 0))
-					continue;
-
-				// unless this is the default constructor, it has to be tagged
-				if (!constructor.isAnnotationPresent(Inject.class) && constructor.getParameterTypes().length != 0)
-					continue;
-
+			for (InjectionPlan.Member constructor : getConstructors(plan, clazz)) {
 				ConstructorRequestor requestor = new ConstructorRequestor(constructor, this, objectSupplier, tempSupplier);
 				Object[] actualArgs = resolveArgs(requestor, objectSupplier, tempSupplier, false, true, false);
 				if (unresolved(actualArgs) != -1)
@@ -331,10 +427,9 @@ public class InjectorImpl implements IInjector {
 				Object newInstance = requestor.execute();
 				if (newInstance != null) {
 					inject(newInstance, objectSupplier, tempSupplier);
-					if (isSingleton) {
-						synchronized (singletonCache) { // TBD this is not quite right, synch the method
-							singletonCache.put(clazz, newInstance);
-						}
+					if (creation != null) {
+						creation.instance = newInstance;
+						singletonCache.put(clazz, newInstance);
 					}
 					return newInstance;
 				}
@@ -345,9 +440,74 @@ public class InjectorImpl implements IInjector {
 		} catch (NoSuchMethodError e) {
 			throw new InjectionException(e);
 		} finally {
-			if (shouldDebug)
-				classesBeingCreated.remove(clazz);
+			creationStack.remove(creationStack.size() - 1);
+			if (creation != null) {
+				if (creation.instance == null)
+					singletonCache.remove(clazz, creation);
+				creation.done.countDown();
+			}
+		}
+	}
+
+	/**
+	 * Waits for another thread to finish creating a singleton. Returns the singleton, or
+	 * <code>null</code> if the creation failed.
+	 */
+	private Object awaitSingleton(SingletonCreation creation) {
+		startWaiting(creation, creation.clazz);
+		try {
+			creation.done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InjectionException("Interrupted while waiting for creation of " + creation.clazz.getName(), e); //$NON-NLS-1$
+		} finally {
+			stopWaiting();
 		}
+		return creation.instance;
+	}
+
+	/**
+	 * Records that the current thread is about to block on a singleton creation or a creation
+	 * task. Fails if that thread is, directly or not, waiting for the current thread.
+	 */
+	private void startWaiting(Object waitFor, Class<?> clazz) {
+		Thread current = Thread.currentThread();
+		synchronized (waitingThreads) {
+			Object next = waitFor;
+			for (int i = 0; next != null && i <= waitingThreads.size(); i++) {
+				Thread blocking = blockingThread(next);
+				if (blocking == null)
+					break;
+				if (blocking == current)
+					throw new InjectionException("Circular references across threads trying to create " + clazz.getName() + " from " + creationPath(classesBeingCreated.get())); //$NON-NLS-1$ //$NON-NLS-2$
+				next = waitingThreads.get(blocking);
+			}
+			waitingThreads.put(current, waitFor);
+		}
+	}
+
+	static private Thread blockingThread(Object waitFor) {
+		if (waitFor instanceof SingletonCreation)
+			return ((SingletonCreation) waitFor).creator;
+		if (waitFor instanceof CreationTask)
+			return ((CreationTask) waitFor).runner;
+		return ((Construction) waitFor).runner;
+	}
+
+	private void stopWaiting() {
+		synchronized (waitingThreads) {
+			waitingThreads.remove(Thread.currentThread());
+		}
+	}
+
+	private String creationPath(List<Class<?>> creationStack) {
+		StringBuffer tmp = new StringBuffer();
+		for (Class<?> clazz : creationStack) {
+			if (tmp.length() != 0)
+				tmp.append(" -> "); //$NON-NLS-1$
+			tmp.append(clazz.getName());
+		}
+		return tmp.toString();
 	}
 
 	public void resolveArguments(IRequestor requestor, boolean initial) {
@@ -367,30 +527,38 @@ public class InjectorImpl implements IInjector {
 	}
 
 	public void disposed(PrimaryObjectSupplier objectSupplier) {
-		List<WeakReference<?>> references = getSupplierObjects(objectSupplier);
+		WeakIdentitySet references = getSupplierObjects(objectSupplier);
 		if (references == null)
 			return;
-		Object[] objects = new Object[references.size()];
-		int count = 0;
-		for (WeakReference<?> ref : references) {
-			Object object = ref.get();
-			if (object != null) {
-				objects[count] = object;
-				count++;
-			}
-		}
-		for (int i = 0; i < count; i++) {
+		Object[] objects = references.getSafeCopy();
+		for (int i = 0; i < objects.length; i++) {
 			Object object = objects[i];
 			if (!forgetInjectedObject(object, objectSupplier))
 				continue; // not injected at this time
-			processAnnotated(PreDestroy.class, object, object.getClass(), objectSupplier, null, new ArrayList<Class<?>>(5));
+			processAnnotated(PreDestroy.class, object, objectSupplier, null);
 		}
 		forgetSupplier(objectSupplier);
 	}
 
 	private void resolveRequestorArgs(ArrayList<Requestor> requestors, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier, boolean uninject, boolean initial, boolean track) {
-		for (Requestor requestor : requestors) {
-			Object[] actualArgs = resolveArgs(requestor, objectSupplier, tempSupplier, uninject, initial, track);
+		Object[][] allArgs = new Object[requestors.size()][];
+		if (creationExecutor == null) {
+			for (int i = 0; i < allArgs.length; i++)
+				allArgs[i] = resolveArgs(requestors.get(i), objectSupplier, tempSupplier, uninject, initial, track);
+		} else {
+			// create missing objects for all requestors at once so that they can be built in parallel
+			List<Creation> creations = new ArrayList<Creation>();
+			for (int i = 0; i < allArgs.length; i++) {
+				allArgs[i] = resolveSuppliedArgs(requestors.get(i), objectSupplier, tempSupplier, initial, track);
+				collectCreations(requestors.get(i), allArgs[i], uninject, creations);
+			}
+			createObjects(creations, objectSupplier, tempSupplier);
+			for (int i = 0; i < allArgs.length; i++)
+				postProcessArgs(requestors.get(i), allArgs[i]);
+		}
+		for (int i = 0; i < allArgs.length; i++) {
+			Requestor requestor = requestors.get(i);
+			Object[] actualArgs = allArgs[i];
 			int unresolved = unresolved(actualArgs);
 			if (unresolved == -1) {
 				requestor.setResolvedArgs(actualArgs);
@@ -423,6 +591,15 @@ public class InjectorImpl implements IInjector {
 	}
 
 	private Object[] resolveArgs(Requestor requestor, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier, boolean uninject, boolean initial, boolean track) {
+		Object[] actualArgs = resolveSuppliedArgs(requestor, objectSupplier, tempSupplier, initial, track);
+		List<Creation> creations = new ArrayList<Creation>(actualArgs.length);
+		collectCreations(requestor, actualArgs, uninject, creations);
+		createObjects(creations, objectSupplier, tempSupplier);
+		postProcessArgs(requestor, actualArgs);
+		return actualArgs;
+	}
+
+	private Object[] resolveSuppliedArgs(Requestor requestor, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier, boolean initial, boolean track) {
 		IObjectDescriptor[] descriptors = requestor.getDependentObjects();
 
 		// 0) initial fill - all values are unresolved
@@ -454,34 +631,273 @@ public class InjectorImpl implements IInjector {
 				continue;
 			actualArgs[i] = extendedSupplier.get(descriptors[i], requestor, requestor.shouldTrack() && track, requestor.shouldGroupUpdates());
 		}
+		return actualArgs;
+	}
 
-		// 5) try the bindings
+	private void collectCreations(Requestor requestor, Object[] actualArgs, boolean uninject, List<Creation> creations) {
+		IObjectDescriptor[] descriptors = requestor.getDependentObjects();
 		for (int i = 0; i < actualArgs.length; i++) {
 			if (actualArgs[i] != NOT_A_VALUE)
 				continue; // already resolved
+
+			// 5) try the bindings
 			Binding binding = findBinding(descriptors[i]);
-			if (binding != null)
-				actualArgs[i] = internalMake(binding.getImplementationClass(), objectSupplier, tempSupplier);
+			if (binding != null) {
+				creations.add(new Creation(actualArgs, i, binding.getImplementationClass(), true));
+				continue;
+			}
+
+			// 5) create simple classes (implied bindings) - unless we uninject or optional
+			if (uninject || requestor.isOptional())
+				continue;
+			if (descriptors[i].hasQualifier(Optional.class))
+				continue;
+			try {
+				Class<?> desiredClass = getDesiredClass(descriptors[i].getDesiredType());
+				Creatable creatableAnnotation = desiredClass.getAnnotation(Creatable.class);
+				if (creatableAnnotation == null)
+					continue;
+				creations.add(new Creation(actualArgs, i, desiredClass, false));
+			} catch (InjectionException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * Creates objects needed to fill in arguments. If a creation executor is set, several
+	 * objects are created in parallel; the calling thread participates and runs the tasks
+	 * that the executor has not started yet. Suppliers, such as contexts, are not safe to use
+	 * from several threads: if one takes part, only the constructors run in parallel.
+	 */
+	private void createObjects(List<Creation> creations, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier) {
+		Executor executor = creationExecutor;
+		if (executor == null || creations.size() < 2) {
+			for (Creation creation : creations) {
+				try {
+					creation.actualArgs[creation.index] = internalMake(creation.clazz, objectSupplier, tempSupplier);
+				} catch (InjectionException e) {
+					if (creation.required)
+						throw e;
+				}
+			}
+			return;
 		}
+		if (objectSupplier != null || tempSupplier != null) {
+			constructObjects(creations, executor, objectSupplier, tempSupplier);
+			return;
+		}
+
+		List<Class<?>> creationStack = classesBeingCreated.get();
+		CreationTask[] tasks = new CreationTask[creations.size()];
+		List<FutureTask<Object>> futures = new ArrayList<FutureTask<Object>>(tasks.length);
+		for (int i = 0; i < tasks.length; i++) {
+			tasks[i] = new CreationTask(creations.get(i).clazz, creationStack, objectSupplier, tempSupplier);
+			FutureTask<Object> future = new FutureTask<Object>(tasks[i]);
+			futures.add(future);
+			if (i == 0)
+				continue; // the first one is always created by this thread
+			try {
+				executor.execute(future);
+			} catch (RejectedExecutionException e) {
+				// will run on this thread
+			}
+		}
+
+		RuntimeException failure = null;
+		for (int i = 0; i < tasks.length; i++) {
+			FutureTask<Object> future = futures.get(i);
+			future.run(); // does nothing if the executor started it
+			try {
+				creations.get(i).actualArgs[creations.get(i).index] = awaitCreation(future, tasks[i], tasks[i].clazz);
+			} catch (InjectionException e) {
+				if (creations.get(i).required && failure == null)
+					failure = e;
+			} catch (RuntimeException e) {
+				if (failure == null)
+					failure = e;
+			}
+		}
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Creates objects with the help of suppliers. The constructor arguments are resolved
+	 * and the objects injected on the calling thread; the constructors run in parallel.
+	 */
+	private void constructObjects(List<Creation> creations, Executor executor, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier) {
+		Construction[] constructions = new Construction[creations.size()];
+		try {
+			RuntimeException failure = null;
+			for (int i = 0; i < constructions.length; i++) {
+				try {
+					constructions[i] = prepareConstruction(creations.get(i).clazz, objectSupplier, tempSupplier);
+				} catch (InjectionException e) {
+					if (creations.get(i).required)
+						throw e;
+				}
+			}
 
-		// 5) create simple classes (implied bindings) - unless we uninject or optional
-		if (!uninject && !requestor.isOptional()) {
-			for (int i = 0; i < actualArgs.length; i++) {
-				if (actualArgs[i] != NOT_A_VALUE)
-					continue; // already resolved
-				if (descriptors[i].hasQualifier(Optional.class))
+			List<FutureTask<Object>> futures = new ArrayList<FutureTask<Object>>(constructions.length);
+			for (int i = 0; i < constructions.length; i++) {
+				if (constructions[i] == null || constructions[i].instance != null) {
+					futures.add(null);
 					continue;
+				}
+				FutureTask<Object> future = new FutureTask<Object>(constructions[i]);
+				futures.add(future);
 				try {
-					Class<?> desiredClass = getDesiredClass(descriptors[i].getDesiredType());
-					Creatable creatableAnnotation = desiredClass.getAnnotation(Creatable.class);
-					if (creatableAnnotation == null)
-						continue;
-					actualArgs[i] = internalMake(getDesiredClass(descriptors[i].getDesiredType()), objectSupplier, tempSupplier);
+					executor.execute(future);
+				} catch (RejectedExecutionException e) {
+					// will run on this thread
+				}
+			}
+
+			for (int i = 0; i < constructions.length; i++) {
+				Construction construction = constructions[i];
+				FutureTask<Object> future = futures.get(i);
+				try {
+					if (future != null) {
+						future.run(); // does nothing if the executor started it
+						construction.instance = awaitCreation(future, construction, construction.clazz);
+						if (construction.instance == null)
+							throw new InjectionException("Could not find satisfiable constructor in " + construction.clazz.getName()); //$NON-NLS-1$
+						completeConstruction(construction, objectSupplier, tempSupplier);
+					}
+					if (construction != null)
+						creations.get(i).actualArgs[creations.get(i).index] = construction.instance;
 				} catch (InjectionException e) {
-					// ignore
+					if (creations.get(i).required && failure == null)
+						failure = e;
+				} catch (RuntimeException e) {
+					if (failure == null)
+						failure = e;
+				}
+			}
+			if (failure != null)
+				throw failure;
+		} finally {
+			for (Construction construction : constructions) {
+				if (construction != null)
+					releaseSingleton(construction.clazz, construction.creation);
+			}
+		}
+	}
+
+	/**
+	 * Resolves the constructor arguments of an object on the calling thread. The returned
+	 * construction holds the existing instance if the class is a singleton that is already
+	 * created.
+	 */
+	private Construction prepareConstruction(Class<?> clazz, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier) {
+		Construction construction = new Construction(clazz);
+		List<Class<?>> creationStack = classesBeingCreated.get();
+		boolean recursive = creationStack.contains(clazz);
+		if (shouldDebug && recursive)
+			LogHelper.logWarning("Possible recursive reference trying to create class \"" + clazz.getName() + "\".", null); //$NON-NLS-1$ //$NON-NLS-2$
+		creationStack.add(clazz);
+		try {
+			InjectionPlan plan = getPlan(clazz);
+			if (plan.isSingleton) {
+				while (true) {
+					Object cached = singletonCache.get(clazz);
+					if (cached == null) {
+						construction.creation = new SingletonCreation(clazz);
+						cached = singletonCache.putIfAbsent(clazz, construction.creation);
+						if (cached == null)
+							break; // this thread creates the singleton
+						construction.creation = null;
+					}
+					if (!(cached instanceof SingletonCreation)) {
+						construction.instance = cached;
+						return construction;
+					}
+					if (recursive)
+						throw new InjectionException("Recursive reference trying to create singleton " + creationPath(creationStack)); //$NON-NLS-1$
+					Object instance = awaitSingleton((SingletonCreation) cached);
+					if (instance != null) {
+						construction.instance = instance;
+						return construction;
+					}
 				}
 			}
+
+			for (InjectionPlan.Member constructor : getConstructors(plan, clazz)) {
+				ConstructorRequestor requestor = new ConstructorRequestor(constructor, this, objectSupplier, tempSupplier);
+				Object[] actualArgs = resolveArgs(requestor, objectSupplier, tempSupplier, false, true, false);
+				if (unresolved(actualArgs) != -1)
+					continue;
+				construction.requestor = requestor;
+				construction.args = actualArgs;
+				return construction;
+			}
+			throw new InjectionException("Could not find satisfiable constructor in " + clazz.getName()); //$NON-NLS-1$
+		} catch (RuntimeException e) {
+			releaseSingleton(clazz, construction.creation);
+			throw e;
+		} catch (NoClassDefFoundError e) {
+			releaseSingleton(clazz, construction.creation);
+			throw new InjectionException(e);
+		} catch (NoSuchMethodError e) {
+			releaseSingleton(clazz, construction.creation);
+			throw new InjectionException(e);
+		} finally {
+			creationStack.remove(creationStack.size() - 1);
+		}
+	}
+
+	/**
+	 * Injects a constructed object on the calling thread and publishes it if it is a singleton.
+	 */
+	private void completeConstruction(Construction construction, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier) {
+		List<Class<?>> creationStack = classesBeingCreated.get();
+		creationStack.add(construction.clazz);
+		try {
+			inject(construction.instance, objectSupplier, tempSupplier);
+		} finally {
+			creationStack.remove(creationStack.size() - 1);
+		}
+		if (construction.creation != null) {
+			construction.creation.instance = construction.instance;
+			singletonCache.put(construction.clazz, construction.instance);
+		}
+	}
+
+	/**
+	 * Removes the placeholder of a singleton that was not created and wakes up the threads
+	 * waiting for it. Does nothing if no placeholder was reserved or once it was released.
+	 */
+	private void releaseSingleton(Class<?> clazz, SingletonCreation creation) {
+		if (creation == null || creation.done.getCount() == 0)
+			return;
+		if (creation.instance == null)
+			singletonCache.remove(clazz, creation);
+		creation.done.countDown();
+	}
+
+	private Object awaitCreation(FutureTask<Object> future, Object task, Class<?> clazz) {
+		if (!future.isDone())
+			startWaiting(task, clazz);
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InjectionException("Interrupted while waiting for creation of " + clazz.getName(), e); //$NON-NLS-1$
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new InjectionException(cause);
+		} finally {
+			stopWaiting();
 		}
+	}
+
+	private void postProcessArgs(Requestor requestor, Object[] actualArgs) {
+		IObjectDescriptor[] descriptors = requestor.getDependentObjects();
 
 		// 6) post process
 		for (int i = 0; i < descriptors.length; i++) {
@@ -534,32 +950,33 @@ public class InjectorImpl implements IInjector {
 				}
 			}
 		}
-		return actualArgs;
 	}
 
 	private ExtendedObjectSupplier findExtendedSupplier(IObjectDescriptor descriptor, PrimaryObjectSupplier objectSupplier) {
 		Annotation[] qualifiers = descriptor.getQualifiers();
 		if (qualifiers == null)
 			return null;
-		for (Annotation qualifier : qualifiers) {
-			String key;
-			Type type = qualifier.annotationType();
-			if (type instanceof Class<?>) {
-				key = ((Class<?>) type).getName();
-			} else
-				continue;
-
-			ExtendedObjectSupplier supplier;
-			try {
-				// use qualified name to refer to a class that might be missing
-				supplier = org.eclipse.e4.core.internal.di.osgi.ProviderHelper.findProvider(key, defaultSupplier);
-			} catch (NoClassDefFoundError e) {
-				return null; // OSGi framework not present 
+		try {
+			// use qualified name to refer to a class that might be missing
+			int generation = org.eclipse.e4.core.internal.di.osgi.ProviderHelper.getGeneration();
+			ObjectDescriptor objectDescriptor = (descriptor instanceof ObjectDescriptor) ? (ObjectDescriptor) descriptor : null;
+			if (objectDescriptor != null) {
+				ObjectDescriptor.SupplierResolution resolution = objectDescriptor.getSupplierResolution();
+				if (resolution != null && resolution.generation == generation)
+					return resolution.supplier;
 			}
-			if (supplier != null)
-				return supplier;
+			ExtendedObjectSupplier supplier = null;
+			for (Annotation qualifier : qualifiers) {
+				supplier = org.eclipse.e4.core.internal.di.osgi.ProviderHelper.findProvider(qualifier.annotationType(), defaultSupplier);
+				if (supplier != null)
+					break;
+			}
+			if (objectDescriptor != null)
+				objectDescriptor.setSupplierResolution(new ObjectDescriptor.SupplierResolution(supplier, generation));
+			return supplier;
+		} catch (NoClassDefFoundError e) {
+			return null; // OSGi framework not present 
 		}
-		return null;
 	}
 
 	private int unresolved(Object[] actualArgs) {
@@ -571,33 +988,20 @@ public class InjectorImpl implements IInjector {
 	}
 
 	private void processClassHierarchy(Object userObject, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier, boolean track, boolean normalOrder, List<Requestor> requestors) {
-		processClass(userObject, objectSupplier, tempSupplier, (userObject == null) ? null : userObject.getClass(), new ArrayList<Class<?>>(5), track, normalOrder, requestors);
-	}
-
-	/**
-	 * Make the processor visit all declared members on the given class and all superclasses
-	 */
-	private void processClass(Object userObject, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier, Class<?> objectsClass, ArrayList<Class<?>> classHierarchy, boolean track, boolean normalOrder, List<Requestor> requestors) {
 		// order: superclass, fields, methods
-		if (objectsClass != null) {
-			Class<?> superClass = objectsClass.getSuperclass();
-			if (superClass != null && !superClass.getName().equals(JAVA_OBJECT)) {
-				classHierarchy.add(objectsClass);
-				processClass(userObject, objectSupplier, tempSupplier, superClass, classHierarchy, track, normalOrder, requestors);
-				classHierarchy.remove(objectsClass);
-			}
-		}
-		boolean injectedStaticFields;
-		boolean injectedStaticMethods;
-		if (normalOrder) {
-			injectedStaticFields = processFields(userObject, objectSupplier, tempSupplier, objectsClass, track, requestors);
-			injectedStaticMethods = processMethods(userObject, objectSupplier, tempSupplier, objectsClass, classHierarchy, track, requestors);
-		} else {
-			injectedStaticMethods = processMethods(userObject, objectSupplier, tempSupplier, objectsClass, classHierarchy, track, requestors);
-			injectedStaticFields = processFields(userObject, objectSupplier, tempSupplier, objectsClass, track, requestors);
+		InjectionPlan plan = getPlan(userObject.getClass());
+		for (InjectionPlan.ClassLevel level : plan.hierarchy) {
+			boolean injectStatic = level.hasStatic && !hasInjectedStatic(level.declaringClass);
+			if (normalOrder) {
+				processFields(userObject, objectSupplier, tempSupplier, level, injectStatic, track, requestors);
+				processMethods(userObject, objectSupplier, tempSupplier, level, injectStatic, track, requestors);
+			} else {
+				processMethods(userObject, objectSupplier, tempSupplier, level, injectStatic, track, requestors);
+				processFields(userObject, objectSupplier, tempSupplier, level, injectStatic, track, requestors);
+			}
+			if (injectStatic)
+				rememberInjectedStatic(level.declaringClass);
 		}
-		if (injectedStaticFields || injectedStaticMethods)
-			rememberInjectedStatic(objectsClass);
 	}
 
 	private boolean hasInjectedStatic(Class<?> objectsClass) {
@@ -620,69 +1024,143 @@ public class InjectorImpl implements IInjector {
 	}
 
 	/**
-	 * Make the processor visit all declared fields on the given class.
+	 * Make the processor visit all injectable fields declared on the given class.
 	 */
-	private boolean processFields(Object userObject, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier, Class<?> objectsClass, boolean track, List<Requestor> requestors) {
-		boolean injectedStatic = false;
-		Field[] fields = objectsClass.getDeclaredFields();
-		for (int i = 0; i < fields.length; i++) {
-			Field field = fields[i];
-			if (Modifier.isStatic(field.getModifiers())) {
-				if (hasInjectedStatic(objectsClass))
-					continue;
-				injectedStatic = true;
-			}
-			if (!field.isAnnotationPresent(Inject.class))
+	private void processFields(Object userObject, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier, InjectionPlan.ClassLevel level, boolean injectStatic, boolean track, List<Requestor> requestors) {
+		for (InjectionPlan.Member field : level.fields) {
+			if (field.isStatic && !injectStatic)
 				continue;
 			requestors.add(new FieldRequestor(field, this, objectSupplier, tempSupplier, userObject, track));
 		}
-		return injectedStatic;
 	}
 
 	/**
-	 * Make the processor visit all declared methods on the given class.
+	 * Make the processor visit all injectable methods declared on the given class.
 	 */
-	private boolean processMethods(final Object userObject, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier, Class<?> objectsClass, ArrayList<Class<?>> classHierarchy, boolean track, List<Requestor> requestors) {
-		boolean injectedStatic = false;
-		Method[] methods = getDeclaredMethods(objectsClass);
-		for (int i = 0; i < methods.length; i++) {
-			final Method method = methods[i];
-
-			Boolean isOverridden = null;
-			Map<Method, Boolean> methodMap = null;
-			Class<?> originalClass = userObject.getClass();
-			if (isOverriddenCache.containsKey(originalClass)) {
-				methodMap = isOverriddenCache.get(originalClass);
-				if (methodMap.containsKey(method))
-					isOverridden = methodMap.get(method);
-			}
-			if (isOverridden == null) {
-				isOverridden = isOverridden(method, classHierarchy);
-				if (methodMap == null) {
-					methodMap = new WeakHashMap<Method, Boolean>();
-					isOverriddenCache.put(originalClass, methodMap);
-				}
-				methodMap.put(method, isOverridden);
+	private void processMethods(Object userObject, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier, InjectionPlan.ClassLevel level, boolean injectStatic, boolean track, List<Requestor> requestors) {
+		for (InjectionPlan.Member method : level.methods) {
+			if (method.isStatic && !injectStatic)
+				continue;
+			requestors.add(new MethodRequestor(method, this, objectSupplier, tempSupplier, userObject, track));
+		}
+	}
+
+	private InjectionPlan getPlan(Class<?> objectsClass) {
+		InjectionPlan plan;
+		synchronized (plans) {
+			plan = plans.get(objectsClass);
+		}
+		if (plan != null)
+			return plan;
+		plan = createPlan(objectsClass);
+		synchronized (plans) {
+			plans.put(objectsClass, plan);
+		}
+		return plan;
+	}
+
+	/**
+	 * Collects injectable fields and methods of the class and its superclasses.
+	 */
+	private InjectionPlan createPlan(Class<?> objectsClass) {
+		// the class followed by its superclasses
+		List<Class<?>> classes = new ArrayList<Class<?>>(5);
+		for (Class<?> currentClass = objectsClass; currentClass != null; currentClass = currentClass.getSuperclass()) {
+			classes.add(currentClass);
+			Class<?> superClass = currentClass.getSuperclass();
+			if (superClass == null || superClass.getName().equals(JAVA_OBJECT))
+				break;
+		}
+
+		InjectionPlan.ClassLevel[] hierarchy = new InjectionPlan.ClassLevel[classes.size()];
+		List<InjectionPlan.Member> postConstruct = new ArrayList<InjectionPlan.Member>();
+		List<InjectionPlan.Member> preDestroy = new ArrayList<InjectionPlan.Member>();
+		for (int level = classes.size() - 1; level >= 0; level--) {
+			Class<?> currentClass = classes.get(level);
+			List<Class<?>> classHierarchy = classes.subList(0, level);
+			boolean hasStatic = false;
+
+			List<InjectionPlan.Member> fields = new ArrayList<InjectionPlan.Member>();
+			for (Field field : currentClass.getDeclaredFields()) {
+				boolean isStatic = Modifier.isStatic(field.getModifiers());
+				if (isStatic)
+					hasStatic = true;
+				if (!field.isAnnotationPresent(Inject.class))
+					continue;
+				IObjectDescriptor[] descriptors = new FieldRequestor(field, this, null, null, null, false).getDependentObjects();
+				fields.add(new InjectionPlan.Member(field, isStatic, true, descriptors));
 			}
 
-			if (isOverridden)
-				continue; // process in the subclass
-			if (Modifier.isStatic(method.getModifiers())) {
-				if (hasInjectedStatic(objectsClass))
+			List<InjectionPlan.Member> methods = new ArrayList<InjectionPlan.Member>();
+			for (Method method : getDeclaredMethods(currentClass)) {
+				if (isOverridden(method, classHierarchy))
+					continue; // process in the subclass
+				boolean isStatic = Modifier.isStatic(method.getModifiers());
+				if (isStatic)
+					hasStatic = true;
+				boolean inject = method.isAnnotationPresent(Inject.class);
+				boolean isPostConstruct = method.isAnnotationPresent(PostConstruct.class);
+				boolean isPreDestroy = method.isAnnotationPresent(PreDestroy.class);
+				if (!inject && !isPostConstruct && !isPreDestroy)
 					continue;
-				injectedStatic = true;
+				IObjectDescriptor[] descriptors = new MethodRequestor(method, this, null, null, null, false).getDependentObjects();
+				InjectionPlan.Member member = new InjectionPlan.Member(method, isStatic, true, descriptors);
+				if (inject)
+					methods.add(member);
+				if (isPostConstruct)
+					postConstruct.add(member);
+				if (isPreDestroy)
+					preDestroy.add(member);
 			}
-			if (!method.isAnnotationPresent(Inject.class))
+			hierarchy[classes.size() - 1 - level] = new InjectionPlan.ClassLevel(currentClass, hasStatic, toArray(fields), toArray(methods));
+		}
+		return new InjectionPlan(objectsClass.isAnnotationPresent(Singleton.class), hierarchy, toArray(postConstruct), toArray(preDestroy));
+	}
+
+	private InjectionPlan.Member[] getConstructors(InjectionPlan plan, Class<?> objectsClass) {
+		InjectionPlan.Member[] result = plan.getConstructors();
+		if (result != null)
+			return result;
+		Constructor<?>[] constructors = objectsClass.getDeclaredConstructors();
+		// Sort the constructors by descending number of constructor arguments
+		ArrayList<Constructor<?>> sortedConstructors = new ArrayList<Constructor<?>>(constructors.length);
+		for (Constructor<?> constructor : constructors)
+			sortedConstructors.add(constructor);
+		Collections.sort(sortedConstructors, new Comparator<Constructor<?>>() {
+			public int compare(Constructor<?> c1, Constructor<?> c2) {
+				int l1 = c1.getParameterTypes().length;
+				int l2 = c2.getParameterTypes().length;
+				return l2 - l1;
+			}
+		});
+
+		List<InjectionPlan.Member> members = new ArrayList<InjectionPlan.Member>(sortedConstructors.size());
+		for (Constructor<?> constructor : sortedConstructors) {
+			// skip private and protected constructors; allow public and package visibility
+			int modifiers = constructor.getModifiers();
+			if (((modifiers & Modifier.PRIVATE) != 0) || ((modifiers & Modifier.PROTECTED) != 0))
 				continue;
-			requestors.add(new MethodRequestor(method, this, objectSupplier, tempSupplier, userObject, track));
+
+			// unless this is the default constructor, it has to be tagged
+			if (!constructor.isAnnotationPresent(Inject.class) && constructor.getParameterTypes().length != 0)
+				continue;
+
+			IObjectDescriptor[] descriptors = new ConstructorRequestor(constructor, this, null, null).getDependentObjects();
+			members.add(new InjectionPlan.Member(constructor, false, false, descriptors));
 		}
-		return injectedStatic;
+		result = toArray(members);
+		plan.setConstructors(result);
+		return result;
+	}
+
+	private InjectionPlan.Member[] toArray(List<InjectionPlan.Member> members) {
+		return members.toArray(new InjectionPlan.Member[members.size()]);
 	}
 
 	/**
 	 * Checks if a given method is overridden with an injectable method.
 	 */
-	private boolean isOverridden(Method method, ArrayList<Class<?>> classHierarchy) {
+	private boolean isOverridden(Method method, List<Class<?>> classHierarchy) {
 		int modifiers = method.getModifiers();
 		if (Modifier.isPrivate(modifiers))
 			return false;
@@ -734,10 +1212,15 @@ public class InjectorImpl implements IInjector {
 	}
 
 	private Method[] getDeclaredMethods(Class<?> c) {
-		Method[] methods = methodsCache.get(c);
+		Method[] methods;
+		synchronized (methodsCache) {
+			methods = methodsCache.get(c);
+		}
 		if (methods == null) {
 			methods = c.getDeclaredMethods();
-			methodsCache.put(c, methods);
+			synchronized (methodsCache) {
+				methodsCache.put(c, methods);
+			}
 		}
 		return methods;
 	}
@@ -777,99 +1260,58 @@ public class InjectorImpl implements IInjector {
 	public IBinding addBinding(IBinding binding) {
 		Binding internalBinding = (Binding) binding;
 		Class<?> clazz = internalBinding.getDescribedClass();
-		synchronized (bindings) {
-			if (bindings.containsKey(clazz)) {
-				Set<Binding> collection = bindings.get(clazz);
-				String desiredQualifierName = internalBinding.getQualifierName();
-				for (Iterator<Binding> i = collection.iterator(); i.hasNext();) {
-					Binding collectionBinding = i.next();
-					if (eq(collectionBinding.getQualifierName(), desiredQualifierName)) {
-						i.remove();
-						break;
-					}
-				}
-				collection.add(internalBinding);
-			} else {
-				Set<Binding> collection = new HashSet<Binding>(1);
-				collection.add(internalBinding);
-				bindings.put(clazz, collection);
+		synchronized (bindingsLock) {
+			ClassBindings current = bindings.get(clazz);
+			Map<String, Binding> named = new HashMap<String, Binding>(4);
+			Binding first = internalBinding;
+			if (current != null) {
+				named.putAll(current.named);
+				Binding replaced = named.get(internalBinding.getQualifierName());
+				if (current.first != replaced)
+					first = current.first;
 			}
+			named.put(internalBinding.getQualifierName(), internalBinding);
+			Map<Class<?>, ClassBindings> newBindings = new HashMap<Class<?>, ClassBindings>(bindings);
+			newBindings.put(clazz, new ClassBindings(named, first));
+			bindings = newBindings;
 		}
 		return binding;
 	}
 
 	private Binding findBinding(IObjectDescriptor descriptor) {
+		Map<Class<?>, ClassBindings> currentBindings = bindings;
+		if (currentBindings.isEmpty())
+			return null;
 		Class<?> desiredClass = getProviderType(descriptor.getDesiredType());
 		if (desiredClass == null)
 			desiredClass = getDesiredClass(descriptor.getDesiredType());
-		synchronized (bindings) {
-			if (!bindings.containsKey(desiredClass))
-				return null;
-			Set<Binding> collection = bindings.get(desiredClass);
-			String desiredQualifierName = null;
-			if (descriptor.hasQualifier(Named.class)) {
-				Named namedAnnotation = descriptor.getQualifier(Named.class);
-				desiredQualifierName = namedAnnotation.value();
-			} else {
-				Annotation[] annotations = descriptor.getQualifiers();
-				if (annotations != null) {
-					for (Annotation annotation : annotations) {
-						desiredQualifierName = annotation.annotationType().getName();
-						break;
-					}
-				}
-			}
+		ClassBindings classBindings = currentBindings.get(desiredClass);
+		if (classBindings == null)
+			return null;
 
-			for (Iterator<Binding> i = collection.iterator(); i.hasNext();) {
-				Binding collectionBinding = i.next();
-				if (eq(collectionBinding.getQualifierName(), desiredQualifierName))
-					return collectionBinding;
-			}
-			desiredQualifierName = desiredClass.getName();
-			for (Iterator<Binding> i = collection.iterator(); i.hasNext();) {
-				Binding collectionBinding = i.next();
-				Class<?> bindingClass = collectionBinding.getDescribedClass();
-				if (bindingClass == null)
-					continue;
-				String simpleClassName = bindingClass.getName();
-				if (eq(simpleClassName, desiredQualifierName))
-					return collectionBinding;
-			}
+		String desiredQualifierName = null;
+		Named namedAnnotation = descriptor.getQualifier(Named.class);
+		if (namedAnnotation != null)
+			desiredQualifierName = namedAnnotation.value();
+		else {
+			Annotation[] annotations = descriptor.getQualifiers();
+			if (annotations != null && annotations.length > 0)
+				desiredQualifierName = annotations[0].annotationType().getName();
 		}
-		return null;
+		Binding binding = classBindings.named.get(desiredQualifierName);
+		if (binding != null)
+			return binding;
+		return classBindings.first;
 	}
 
-	/**
-	 * Are two, possibly null, string equal?
-	 */
-	private boolean eq(String str1, String str2) {
-		if (str1 == null && str2 == null)
-			return true;
-		if (str1 == null || str2 == null)
-			return false;
-		return str1.equals(str2);
-	}
-
-	private void processAnnotated(Class<? extends Annotation> annotation, Object userObject, Class<?> objectClass, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier, ArrayList<Class<?>> classHierarchy) {
-		Class<?> superClass = objectClass.getSuperclass();
-		if (superClass != null && !superClass.getName().equals(JAVA_OBJECT)) {
-			classHierarchy.add(objectClass);
-			processAnnotated(annotation, userObject, superClass, objectSupplier, tempSupplier, classHierarchy);
-			classHierarchy.remove(objectClass);
-		}
-		Method[] methods = getDeclaredMethods(objectClass);
-		for (int i = 0; i < methods.length; i++) {
-			Method method = methods[i];
-			if (!method.isAnnotationPresent(annotation))
-				continue;
-			if (isOverridden(method, classHierarchy))
-				continue;
-
+	private void processAnnotated(Class<? extends Annotation> annotation, Object userObject, PrimaryObjectSupplier objectSupplier, PrimaryObjectSupplier tempSupplier) {
+		InjectionPlan plan = getPlan(userObject.getClass());
+		for (InjectionPlan.Member method : plan.getAnnotated(annotation)) {
 			MethodRequestor requestor = new MethodRequestor(method, this, objectSupplier, tempSupplier, userObject, false);
 			Object[] actualArgs = resolveArgs(requestor, objectSupplier, tempSupplier, false, false, false);
 			int unresolved = unresolved(actualArgs);
 			if (unresolved != -1) {
-				if (method.isAnnotationPresent(Optional.class))
+				if (method.optional)
 					continue;
 				reportUnresolvedArgument(requestor, unresolved);
 			}
@@ -882,4 +1324,8 @@ public class InjectorImpl implements IInjector {
 		defaultSupplier = objectSupplier;
 	}
 
+	public void setCreationExecutor(Executor executor) {
+		creationExecutor = executor;
+	}
+
 }
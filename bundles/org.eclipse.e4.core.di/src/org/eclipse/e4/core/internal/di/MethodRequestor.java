@@ -11,6 +11,7 @@
 package org.eclipse.e4.core.internal.di;
 
 import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
@@ -25,6 +26,9 @@ public class MethodRequestor extends Requestor {
 
 	final private Method method;
 
+	// arguments of the last call of a tracked method; null elements stand for null arguments
+	private WeakReference<?>[] lastArgs;
+
 	// Having a *static* map is valuable as it changes the hit rate from about 60% to about 90%.
 	private static Map<Method, Annotation[][]> annotationCache = new WeakHashMap<Method, Annotation[][]>();
 
@@ -33,27 +37,33 @@ public class MethodRequestor extends Requestor {
 		this.method = method;
 	}
 
-	public Object execute() throws InjectionException {
-		if (actualArgs == null) {
-			if (method.getParameterTypes().length > 0)
+	public MethodRequestor(InjectionPlan.Member member, IInjector injector, PrimaryObjectSupplier primarySupplier, PrimaryObjectSupplier tempSupplier, Object requestingObject, boolean track) {
+		super(member, injector, primarySupplier, tempSupplier, requestingObject, track);
+		this.method = (Method) member.member;
+	}
+
+	public Object execute(Object[] args) throws InjectionException {
+		if (args == null) {
+			if (getDependentObjects().length > 0) {
+				lastArgs = null;
 				return null; // optional method call
+			}
 		}
 		Object userObject = getRequestingObject();
 		if (userObject == null)
 			return null;
+		if (track)
+			rememberArgs(args);
 		Object result = null;
-		boolean wasAccessible = true;
-		if (!method.isAccessible()) {
-			method.setAccessible(true);
-			wasAccessible = false;
-		}
+		if (!method.isAccessible())
+			method.setAccessible(true); // left on, see InjectionPlan.Member
 		boolean pausedRecording = false;
 		if ((primarySupplier != null)) {
 			primarySupplier.pauseRecording();
 			pausedRecording = true;
 		}
 		try {
-			result = method.invoke(userObject, actualArgs);
+			result = method.invoke(userObject, args);
 		} catch (IllegalArgumentException e) {
 			throw new InjectionException(e);
 		} catch (IllegalAccessException e) {
@@ -62,15 +72,40 @@ public class MethodRequestor extends Requestor {
 			Throwable originalException = e.getCause();
 			throw new InjectionException((originalException != null) ? originalException : e);
 		} finally {
-			if (!wasAccessible)
-				method.setAccessible(false);
 			if (pausedRecording)
 				primarySupplier.resumeRecording();
-			clearResolvedArgs();
+			clearArgs(args);
 		}
 		return result;
 	}
 
+	private void rememberArgs(Object[] args) {
+		if (args == null) {
+			lastArgs = null;
+			return;
+		}
+		WeakReference<?>[] references = new WeakReference<?>[args.length];
+		for (int i = 0; i < args.length; i++) {
+			if (args[i] != null)
+				references[i] = new WeakReference<Object>(args[i]);
+		}
+		lastArgs = references;
+	}
+
+	protected boolean argumentsChanged() {
+		WeakReference<?>[] args = lastArgs;
+		if (args == null || args.length != actualArgs.length)
+			return true;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i] == null) {
+				if (actualArgs[i] != null)
+					return true;
+			} else if (actualArgs[i] == null || args[i].get() != actualArgs[i])
+				return true;
+		}
+		return false;
+	}
+
 	@Override
 	protected IObjectDescriptor[] calcDependentObjects() {
 		Type[] parameterTypes = method.getGenericParameterTypes();
@@ -15,16 +15,47 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 import javax.inject.Qualifier;
+import org.eclipse.e4.core.di.suppliers.ExtendedObjectSupplier;
 import org.eclipse.e4.core.di.suppliers.IObjectDescriptor;
 
+/**
+ * Descriptors are created once per injected member and shared by all injections
+ * of that member (see {@link InjectionPlan}), so checks for qualifiers are answered
+ * from data calculated in the constructor: the qualifier types are kept in an array
+ * that is searched by identity.
+ */
 public class ObjectDescriptor implements IObjectDescriptor {
 
+	/**
+	 * Extended object supplier found for the qualifiers of a descriptor, tagged with
+	 * the generation of the supplier cache it was found in.
+	 */
+	static class SupplierResolution {
+		final ExtendedObjectSupplier supplier;
+		final int generation;
+
+		SupplierResolution(ExtendedObjectSupplier supplier, int generation) {
+			this.supplier = supplier;
+			this.generation = generation;
+		}
+	}
+
 	final private Type desiredType;
 	final private Annotation[] annotations;
+	final private Class<?>[] annotationTypes;
+
+	private volatile SupplierResolution supplierResolution;
 
 	public ObjectDescriptor(Type desiredType, Annotation[] allAnnotations) {
 		this.desiredType = desiredType;
 		this.annotations = (allAnnotations == null) ? null : qualifiers(allAnnotations);
+		if (annotations == null)
+			annotationTypes = null;
+		else {
+			annotationTypes = new Class<?>[annotations.length];
+			for (int i = 0; i < annotations.length; i++)
+				annotationTypes[i] = annotations[i].annotationType();
+		}
 	}
 
 	public Type getDesiredType() {
@@ -32,15 +63,7 @@ public class ObjectDescriptor implements IObjectDescriptor {
 	}
 
 	public boolean hasQualifier(Class<? extends Annotation> clazz) {
-		if (clazz == null)
-			return false;
-		if (annotations == null)
-			return false;
-		for (Annotation annotation : annotations) {
-			if (annotation.annotationType().equals(clazz))
-				return true;
-		}
-		return false;
+		return indexOf(clazz) != -1;
 	}
 
 	public Annotation[] getQualifiers() {
@@ -51,15 +74,28 @@ public class ObjectDescriptor implements IObjectDescriptor {
 	 * Returns null if qualifier is not present
 	 */
 	public <T extends Annotation> T getQualifier(Class<T> clazz) {
+		int index = indexOf(clazz);
+		return (index == -1) ? null : clazz.cast(annotations[index]);
+	}
+
+	private int indexOf(Class<? extends Annotation> clazz) {
 		if (clazz == null)
-			return null;
-		if (annotations == null)
-			return null;
-		for (Annotation annotation : annotations) {
-			if (annotation.annotationType().equals(clazz))
-				return clazz.cast(annotation);
+			return -1;
+		if (annotationTypes == null)
+			return -1;
+		for (int i = 0; i < annotationTypes.length; i++) {
+			if (annotationTypes[i] == clazz)
+				return i;
 		}
-		return null;
+		return -1;
+	}
+
+	SupplierResolution getSupplierResolution() {
+		return supplierResolution;
+	}
+
+	void setSupplierResolution(SupplierResolution resolution) {
+		supplierResolution = resolution;
 	}
 
 	@Override
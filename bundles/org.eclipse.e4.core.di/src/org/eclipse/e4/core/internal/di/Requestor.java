@@ -14,6 +14,7 @@ import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.AccessibleObject;
 import org.eclipse.e4.core.di.IInjector;
+import org.eclipse.e4.core.di.InjectionException;
 import org.eclipse.e4.core.di.annotations.GroupUpdates;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.di.suppliers.IObjectDescriptor;
@@ -43,6 +44,18 @@ abstract public class Requestor implements IRequestor {
 	protected abstract IObjectDescriptor[] calcDependentObjects();
 
 	public Requestor(AccessibleObject reflectionObject, IInjector injector, PrimaryObjectSupplier primarySupplier, PrimaryObjectSupplier tempSupplier, Object requestingObject, boolean track) {
+		this((reflectionObject == null) ? false : reflectionObject.isAnnotationPresent(GroupUpdates.class), (reflectionObject == null) ? false : reflectionObject.isAnnotationPresent(Optional.class), null, injector, primarySupplier, tempSupplier, requestingObject, track);
+	}
+
+	/**
+	 * Creates a requestor for a member of an injection plan; annotations of the member
+	 * are not processed again.
+	 */
+	public Requestor(InjectionPlan.Member member, IInjector injector, PrimaryObjectSupplier primarySupplier, PrimaryObjectSupplier tempSupplier, Object requestingObject, boolean track) {
+		this(member.groupUpdates, member.optional, member.descriptors, injector, primarySupplier, tempSupplier, requestingObject, track);
+	}
+
+	private Requestor(boolean groupUpdates, boolean isOptional, IObjectDescriptor[] objectDescriptors, IInjector injector, PrimaryObjectSupplier primarySupplier, PrimaryObjectSupplier tempSupplier, Object requestingObject, boolean track) {
 		this.injector = injector;
 		this.primarySupplier = primarySupplier;
 		this.tempSupplier = tempSupplier;
@@ -57,8 +70,9 @@ abstract public class Requestor implements IRequestor {
 			objectHashcode = 0;
 		}
 		this.track = track;
-		groupUpdates = (reflectionObject == null) ? false : reflectionObject.isAnnotationPresent(GroupUpdates.class);
-		isOptional = (reflectionObject == null) ? false : reflectionObject.isAnnotationPresent(Optional.class);
+		this.groupUpdates = groupUpdates;
+		this.isOptional = isOptional;
+		this.objectDescriptors = objectDescriptors;
 	}
 
 	public IInjector getInjector() {
@@ -128,6 +142,51 @@ abstract public class Requestor implements IRequestor {
 		((InjectorImpl) injector).resolveArguments(this, initial);
 	}
 
+	public Object execute() throws InjectionException {
+		return execute(takeResolvedArgs());
+	}
+
+	/**
+	 * Returns the resolved arguments and forgets them, so that resolving the arguments again
+	 * does not change the returned ones before they are passed to {@link #execute(Object[])}.
+	 * @return the resolved arguments, or <code>null</code> if they are not resolved
+	 */
+	public Object[] takeResolvedArgs() {
+		Object[] args = actualArgs;
+		actualArgs = null;
+		return args;
+	}
+
+	/**
+	 * Performs the requestor's task with the given resolved arguments.
+	 * @param args the resolved arguments, or <code>null</code> if they are not resolved
+	 * @return result of the task
+	 */
+	abstract public Object execute(Object[] args) throws InjectionException;
+
+	/**
+	 * Executes the requestor unless the resolved arguments are the same objects that were
+	 * injected last time. Used when tracked values change: a change to one of the values
+	 * the requestor depends on does not always change what would be injected.
+	 * @return <code>true</code> if the requestor was executed
+	 */
+	public boolean executeIfChanged() throws InjectionException {
+		if (isResolved() && !argumentsChanged()) {
+			clearResolvedArgs();
+			return false;
+		}
+		execute();
+		return true;
+	}
+
+	/**
+	 * Determines if the resolved arguments differ from the ones last injected. Called only
+	 * when the arguments are resolved.
+	 */
+	protected boolean argumentsChanged() {
+		return true;
+	}
+
 	public void disposed(PrimaryObjectSupplier objectSupplier) {
 		((InjectorImpl) injector).disposed(objectSupplier);
 
@@ -154,13 +213,16 @@ abstract public class Requestor implements IRequestor {
 	 * them from being garbage collected. 
 	 */
 	protected void clearResolvedArgs() {
-		if (actualArgs == null)
+		clearArgs(actualArgs);
+		actualArgs = null;
+	}
+
+	static protected void clearArgs(Object[] args) {
+		if (args == null)
 			return;
-		for (int i = 0; i < actualArgs.length; i++) {
-			actualArgs[i] = null;
+		for (int i = 0; i < args.length; i++) {
+			args[i] = null;
 		}
-		actualArgs = null;
-		return;
 	}
 
 	public int hashCode() {
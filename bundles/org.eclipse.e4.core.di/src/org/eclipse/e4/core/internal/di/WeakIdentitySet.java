@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.core.internal.di;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A set that holds weak references to the objects and compares them by identity.
+ * Additions, removals and lookups take constant time; references cleared by the
+ * garbage collector are purged on the next modification.
+ */
+public class WeakIdentitySet {
+
+	static private class IdentityReference extends WeakReference<Object> {
+
+		// since the reference is weak, must maintain object hashCode for stability
+		final private int hashCode;
+
+		public IdentityReference(Object object, ReferenceQueue<Object> queue) {
+			super(object, queue);
+			hashCode = System.identityHashCode(object);
+		}
+
+		public int hashCode() {
+			return hashCode;
+		}
+
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof IdentityReference))
+				return false;
+			Object object = get();
+			return (object != null && object == ((IdentityReference) obj).get()); // use pointer comparison
+		}
+	}
+
+	final private Set<IdentityReference> references;
+	final private ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+
+	public WeakIdentitySet(int initialSize) {
+		references = new HashSet<IdentityReference>(initialSize);
+	}
+
+	/**
+	 * Adds the object to the set.
+	 * @return <code>true</code> if the object was added, <code>false</code> if it was already present
+	 */
+	synchronized public boolean add(Object object) {
+		purge();
+		return references.add(new IdentityReference(object, queue));
+	}
+
+	/**
+	 * Removes the object from the set.
+	 * @return <code>true</code> if the object was present
+	 */
+	synchronized public boolean remove(Object object) {
+		purge();
+		return references.remove(new IdentityReference(object, null));
+	}
+
+	synchronized public boolean contains(Object object) {
+		return references.contains(new IdentityReference(object, null));
+	}
+
+	/**
+	 * Returns objects in the set that have not been garbage collected.
+	 */
+	synchronized public Object[] getSafeCopy() {
+		purge();
+		Object[] result = new Object[references.size()];
+		int pos = 0;
+		for (IdentityReference ref : references) {
+			Object object = ref.get();
+			if (object == null)
+				continue; // cleared but not queued yet
+			result[pos] = object;
+			pos++;
+		}
+		if (pos == result.length)
+			return result;
+		// reallocate the array
+		Object[] tmp = new Object[pos];
+		System.arraycopy(result, 0, tmp, 0, pos);
+		return tmp;
+	}
+
+	private void purge() {
+		for (Reference<?> ref = queue.poll(); ref != null; ref = queue.poll()) {
+			references.remove(ref);
+		}
+	}
+}
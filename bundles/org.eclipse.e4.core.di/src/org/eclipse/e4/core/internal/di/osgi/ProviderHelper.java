@@ -10,8 +10,9 @@
  *******************************************************************************/
 package org.eclipse.e4.core.internal.di.osgi;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.annotation.Annotation;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.eclipse.e4.core.di.IInjector;
 import org.eclipse.e4.core.di.InjectorFactory;
 import org.eclipse.e4.core.di.suppliers.ExtendedObjectSupplier;
@@ -25,23 +26,31 @@ import org.osgi.framework.ServiceListener;
 import org.osgi.framework.ServiceReference;
 
 /**
- * This helper class assumes that availability of extended services
- * does not change.  
+ * Finds extended object suppliers for qualifiers. Results are cached per qualifier
+ * name, so that the cache does not keep qualifier classes loaded; lookups of cached qualifiers do not lock. When an extended object supplier
+ * service changes, only the entries for the qualifiers it is registered for are dropped.
  */
 public class ProviderHelper {
 
-	static protected Map<String, ExtendedObjectSupplier> extendedSuppliers = new HashMap<String, ExtendedObjectSupplier>();
+	// marks qualifiers that have no extended supplier
+	final static private Object NO_SUPPLIER = new Object();
+
+	static protected ConcurrentMap<String, Object> extendedSuppliers = new ConcurrentHashMap<String, Object>();
+
+	// lock for updates to the cache; lookups don't need it
+	final static private Object lock = new Object();
+
+	// incremented every time cached entries are removed
+	static private volatile int generation = 0;
 
 	static {
-		// in case if any extended object supplier changes, clear the supplier cache
+		// in case if any extended object supplier changes, clear its qualifiers from the cache
 		BundleContext bundleContext = DIActivator.getDefault().getBundleContext();
 		String filter = '(' + Constants.OBJECTCLASS + '=' + ExtendedObjectSupplier.SERVICE_NAME + ')';
 		try {
 			bundleContext.addServiceListener(new ServiceListener() {
 				public void serviceChanged(ServiceEvent event) {
-					synchronized (extendedSuppliers) {
-						extendedSuppliers.clear();
-					}
+					invalidate(event.getServiceReference().getProperty(ExtendedObjectSupplier.SERVICE_CONTEXT_KEY));
 				}
 			}, filter);
 		} catch (InvalidSyntaxException e) {
@@ -50,28 +59,64 @@ public class ProviderHelper {
 		}
 	}
 
-	static public ExtendedObjectSupplier findProvider(String qualifier, PrimaryObjectSupplier objectSupplier) {
-		synchronized (extendedSuppliers) {
-			if (extendedSuppliers.containsKey(qualifier))
-				return extendedSuppliers.get(qualifier);
-			BundleContext bundleContext = DIActivator.getDefault().getBundleContext();
-			try {
-				String filter = '(' + ExtendedObjectSupplier.SERVICE_CONTEXT_KEY + '=' + qualifier + ')';
-				ServiceReference[] refs = bundleContext.getServiceReferences(ExtendedObjectSupplier.SERVICE_NAME, filter);
-				if (refs != null && refs.length > 0) {
-					ExtendedObjectSupplier supplier = (ExtendedObjectSupplier) bundleContext.getService(refs[0]);
-					if (objectSupplier != null) {
-						IInjector injector = InjectorFactory.getDefault();
-						injector.inject(supplier, objectSupplier);
-					}
-					extendedSuppliers.put(qualifier, supplier);
-					return supplier;
+	/**
+	 * Returns a number that changes every time a cached result is dropped. Callers that
+	 * memorize results of {@link #findProvider(Class, PrimaryObjectSupplier)} can use it
+	 * to check if their results are still current.
+	 */
+	static public int getGeneration() {
+		return generation;
+	}
+
+	static public ExtendedObjectSupplier findProvider(Class<? extends Annotation> qualifier, PrimaryObjectSupplier objectSupplier) {
+		String qualifierName = qualifier.getName();
+		Object cached = extendedSuppliers.get(qualifierName);
+		if (cached == null) {
+			synchronized (lock) {
+				cached = extendedSuppliers.get(qualifierName);
+				if (cached == null) {
+					ExtendedObjectSupplier supplier = lookup(qualifierName, objectSupplier);
+					cached = (supplier == null) ? NO_SUPPLIER : supplier;
+					extendedSuppliers.put(qualifierName, cached);
 				}
-			} catch (InvalidSyntaxException e) {
-				// should not happen - we tested the line above
 			}
-			extendedSuppliers.put(qualifier, null);
-			return null;
+		}
+		return (cached == NO_SUPPLIER) ? null : (ExtendedObjectSupplier) cached;
+	}
+
+	static private ExtendedObjectSupplier lookup(String qualifier, PrimaryObjectSupplier objectSupplier) {
+		BundleContext bundleContext = DIActivator.getDefault().getBundleContext();
+		try {
+			String filter = '(' + ExtendedObjectSupplier.SERVICE_CONTEXT_KEY + '=' + qualifier + ')';
+			ServiceReference[] refs = bundleContext.getServiceReferences(ExtendedObjectSupplier.SERVICE_NAME, filter);
+			if (refs != null && refs.length > 0) {
+				ExtendedObjectSupplier supplier = (ExtendedObjectSupplier) bundleContext.getService(refs[0]);
+				if (objectSupplier != null) {
+					IInjector injector = InjectorFactory.getDefault();
+					injector.inject(supplier, objectSupplier);
+				}
+				return supplier;
+			}
+		} catch (InvalidSyntaxException e) {
+			// should not happen - we tested the line above
+		}
+		return null;
+	}
+
+	/**
+	 * Drops cached results for the qualifiers named in the service property; drops
+	 * everything if the property is missing.
+	 */
+	static private void invalidate(Object qualifierNames) {
+		synchronized (lock) {
+			if (qualifierNames instanceof String)
+				extendedSuppliers.remove(qualifierNames);
+			else if (qualifierNames instanceof String[]) {
+				for (String name : (String[]) qualifierNames)
+					extendedSuppliers.remove(name);
+			} else
+				extendedSuppliers.clear();
+			generation++;
 		}
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011 IBM Corporation and others.
+ * Copyright (c) 2011, 2013 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.eclipse.e4.core.services.translation.TranslationService;
 import org.eclipse.osgi.service.localization.BundleLocalization;
 import org.osgi.framework.Bundle;
@@ -41,19 +43,105 @@ public class BundleTranslationProvider extends TranslationService {
 	 */
 	private static final String KEY_DOUBLE_PREFIX = "%%"; //$NON-NLS-1$	
 
+	/**
+	 * Translated keys of one contributor for the current locale; plain text is not remembered.
+	 */
+	static private class Contributor {
+		final ResourceBundle resourceBundle;
+		final ConcurrentMap<String, String> translations = new ConcurrentHashMap<String, String>();
+
+		Contributor(ResourceBundle resourceBundle) {
+			this.resourceBundle = resourceBundle;
+		}
+	}
+
+	// placeholder for contributors that have no bundle
+	final private static Contributor NO_BUNDLE = new Contributor(null);
+
+	/**
+	 * Contributors looked up for a locale. Discarded when the locale or the bundles change.
+	 */
+	static private class Cache {
+		final String locale;
+		final int bundleChanges;
+		final ConcurrentMap<String, Contributor> contributors = new ConcurrentHashMap<String, Contributor>();
+
+		Cache(String locale, int bundleChanges) {
+			this.locale = locale;
+			this.bundleChanges = bundleChanges;
+		}
+	}
+
+	private volatile Cache cache;
+
 	@Override
 	public String translate(String key, String contributorURI) {
-		Bundle bundle = getBundle(contributorURI);
-		if (bundle == null)
+		Contributor contributor = getContributor(contributorURI);
+		if (contributor == null || contributor == NO_BUNDLE)
 			return key;
-		BundleLocalization localizationService = ServicesActivator.getDefault()
-				.getLocalizationService();
-		if (localizationService == null)
-			return key;
-		// TBD locale might contain extra information, such as calendar specification
-		// that might need to be removed.
-		ResourceBundle resourceBundle = localizationService.getLocalization(bundle, locale);
-		return getResourceString(key, resourceBundle);
+		return translate(key, contributor);
+	}
+
+	@Override
+	public String[] translate(String[] keys, String contributorURI) {
+		Contributor contributor = getContributor(contributorURI);
+		String[] result = new String[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			if (contributor == null || contributor == NO_BUNDLE)
+				result[i] = keys[i];
+			else
+				result[i] = translate(keys[i], contributor);
+		}
+		return result;
+	}
+
+	private String translate(String key, Contributor contributor) {
+		if (!key.trim().startsWith(KEY_PREFIX))
+			return getResourceString(key, contributor.resourceBundle); // plain text, nothing to look up
+		String result = contributor.translations.get(key);
+		if (result == null) {
+			result = getResourceString(key, contributor.resourceBundle);
+			contributor.translations.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the translations of the contributor, {@link #NO_BUNDLE} if the contributor has no
+	 * bundle, or <code>null</code> if translations are not available at this time.
+	 */
+	private Contributor getContributor(String contributorURI) {
+		if (contributorURI == null)
+			return NO_BUNDLE;
+		ServicesActivator activator = ServicesActivator.getDefault();
+		int bundleChanges = activator.getBundleChanges();
+		String currentLocale = locale;
+		Cache currentCache = cache;
+		if (currentCache == null || currentCache.bundleChanges != bundleChanges || !equals(currentCache.locale, currentLocale)) {
+			currentCache = new Cache(currentLocale, bundleChanges);
+			cache = currentCache;
+		}
+		Contributor contributor = currentCache.contributors.get(contributorURI);
+		if (contributor != null)
+			return contributor;
+
+		Bundle bundle = getBundle(contributorURI);
+		if (bundle == null) {
+			contributor = NO_BUNDLE;
+		} else {
+			BundleLocalization localizationService = activator.getLocalizationService();
+			if (localizationService == null)
+				return null;
+			// TBD locale might contain extra information, such as calendar specification
+			// that might need to be removed.
+			contributor = new Contributor(localizationService.getLocalization(bundle, currentLocale));
+		}
+		currentCache.contributors.put(contributorURI, contributor);
+		return contributor;
+	}
+
+	static private boolean equals(String s1, String s2) {
+		return (s1 == null) ? s2 == null : s1.equals(s2);
 	}
 
 	private Bundle getBundle(String contributorURI) {
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.core.internal.services;
+
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.core.services.events.IEventDeliveryPolicy;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+import org.osgi.service.event.EventConstants;
+
+/**
+ * Applies per topic delivery policies to posted events. Events on topics with a
+ * {@link #DELIVER_LATEST} or {@link #DELIVER_BATCH} policy are queued per topic and handed to
+ * the event admin by a system job; events on other topics are left to the caller.
+ */
+public class EventPostDispatcher implements IEventDeliveryPolicy {
+
+	private class TopicQueue extends Job {
+
+		final private String topic;
+		final private int policy;
+		final private long interval;
+
+		// guarded by this
+		final private List<Event> pending = new ArrayList<Event>();
+		private EventAdmin eventAdmin;
+		private boolean scheduled = false;
+
+		public TopicQueue(String topic, int policy, long interval) {
+			super("Event delivery: " + topic); //$NON-NLS-1$
+			this.topic = topic;
+			this.policy = policy;
+			this.interval = interval;
+			setSystem(true);
+		}
+
+		public void add(Event event, EventAdmin admin) {
+			synchronized (this) {
+				if (policy == DELIVER_LATEST)
+					pending.clear();
+				pending.add(event);
+				eventAdmin = admin;
+				if (scheduled)
+					return;
+				scheduled = true;
+			}
+			schedule(interval);
+		}
+
+		protected IStatus run(IProgressMonitor monitor) {
+			Event[] events;
+			EventAdmin admin;
+			synchronized (this) {
+				events = pending.toArray(new Event[pending.size()]);
+				pending.clear();
+				admin = eventAdmin;
+				scheduled = false;
+			}
+			if (events.length == 0)
+				return Status.OK_STATUS;
+			if (policy == DELIVER_BATCH)
+				admin.postEvent(batch(events));
+			else
+				admin.postEvent(events[events.length - 1]);
+			return Status.OK_STATUS;
+		}
+
+		private Event batch(Event[] events) {
+			List<Object> data = new ArrayList<Object>(events.length);
+			for (int i = 0; i < events.length; i++) {
+				data.add(events[i].getProperty(IEventBroker.DATA));
+			}
+			Dictionary<String, Object> properties = new Hashtable<String, Object>(2);
+			properties.put(EventConstants.EVENT_TOPIC, topic);
+			properties.put(IEventBroker.DATA, data);
+			return new Event(topic, properties);
+		}
+
+		public boolean belongsTo(Object family) {
+			return family == EventPostDispatcher.this;
+		}
+
+		public String toString() {
+			return "TopicQueue(" + topic + ')'; //$NON-NLS-1$
+		}
+	}
+
+	final private ConcurrentMap<String, TopicQueue> queues = new ConcurrentHashMap<String, TopicQueue>();
+
+	public void setPolicy(String topic, int policy, long interval) {
+		if (topic == null)
+			throw new IllegalArgumentException("Topic must not be null"); //$NON-NLS-1$
+		if (interval < 0)
+			throw new IllegalArgumentException("Negative interval: " + interval); //$NON-NLS-1$
+		switch (policy) {
+			case DELIVER_ALL :
+				queues.remove(topic);
+				break;
+			case DELIVER_LATEST :
+			case DELIVER_BATCH :
+				queues.put(topic, new TopicQueue(topic, policy, interval));
+				break;
+			default :
+				throw new IllegalArgumentException("Unknown delivery policy: " + policy); //$NON-NLS-1$
+		}
+	}
+
+	public boolean post(Event event, EventAdmin eventAdmin) {
+		if (queues.isEmpty())
+			return false;
+		TopicQueue queue = queues.get(event.getTopic());
+		if (queue == null)
+			return false;
+		queue.add(event, eventAdmin);
+		return true;
+	}
+
+	/**
+	 * Discards the queued events and the policies.
+	 */
+	public void dispose() {
+		for (Iterator<TopicQueue> i = queues.values().iterator(); i.hasNext();) {
+			TopicQueue queue = i.next();
+			i.remove();
+			queue.cancel();
+		}
+		Job.getJobManager().cancel(this);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2009, 2011 IBM Corporation and others.
+ *  Copyright (c) 2009, 2013 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -10,9 +10,14 @@
  *******************************************************************************/
 package org.eclipse.e4.core.internal.services;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.e4.core.services.events.IEventDeliveryPolicy;
 import org.eclipse.osgi.service.localization.BundleLocalization;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.framework.SynchronousBundleListener;
 import org.osgi.service.log.LogService;
 import org.osgi.service.packageadmin.PackageAdmin;
 import org.osgi.util.tracker.ServiceTracker;
@@ -26,6 +31,23 @@ public class ServicesActivator implements BundleActivator {
 	private ServiceTracker<PackageAdmin, PackageAdmin> pkgAdminTracker;
 	private ServiceTracker<LogService, LogService> logTracker;
 	private ServiceTracker<BundleLocalization, BundleLocalization> localizationTracker = null;
+	private EventPostDispatcher eventDispatcher;
+	private ServiceRegistration<?> eventDispatcherRegistration;
+
+	// incremented when bundles are resolved, unresolved, updated or uninstalled
+	final private AtomicInteger bundleChanges = new AtomicInteger();
+
+	private SynchronousBundleListener bundleListener = new SynchronousBundleListener() {
+		public void bundleChanged(BundleEvent event) {
+			switch (event.getType()) {
+				case BundleEvent.RESOLVED :
+				case BundleEvent.UNRESOLVED :
+				case BundleEvent.UPDATED :
+				case BundleEvent.UNINSTALLED :
+					bundleChanges.incrementAndGet();
+			}
+		}
+	};
 
 	public ServicesActivator() {
 		defaultInstance = this;
@@ -37,9 +59,26 @@ public class ServicesActivator implements BundleActivator {
 
 	public void start(BundleContext context) throws Exception {
 		bundleContext = context;
+		bundleContext.addBundleListener(bundleListener);
+		try {
+			EventPostDispatcher dispatcher = new EventPostDispatcher();
+			eventDispatcherRegistration = bundleContext.registerService(IEventDeliveryPolicy.class.getName(), dispatcher, null);
+			eventDispatcher = dispatcher;
+		} catch (NoClassDefFoundError e) {
+			// the event admin package is optional
+		}
 	}
 
 	public void stop(BundleContext context) throws Exception {
+		bundleContext.removeBundleListener(bundleListener);
+		if (eventDispatcherRegistration != null) {
+			eventDispatcherRegistration.unregister();
+			eventDispatcherRegistration = null;
+		}
+		if (eventDispatcher != null) {
+			eventDispatcher.dispose();
+			eventDispatcher = null;
+		}
 		if (pkgAdminTracker != null) {
 			pkgAdminTracker.close();
 			pkgAdminTracker = null;
@@ -55,6 +94,10 @@ public class ServicesActivator implements BundleActivator {
 		bundleContext = null;
 	}
 
+	public BundleContext getBundleContext() {
+		return bundleContext;
+	}
+
 	public PackageAdmin getPackageAdmin() {
 		if (pkgAdminTracker == null) {
 			if (bundleContext == null)
@@ -77,6 +120,14 @@ public class ServicesActivator implements BundleActivator {
 		return logTracker.getService();
 	}
 
+	/**
+	 * Returns a number that changes whenever the set of usable bundles changes. Caches of
+	 * bundle lookups are valid as long as the number stays the same.
+	 */
+	public int getBundleChanges() {
+		return bundleChanges.get();
+	}
+
 	public BundleLocalization getLocalizationService() {
 		if (localizationTracker == null) {
 			if (bundleContext == null)
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.core.services.contributions;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.e4.core.contexts.ContextInjectionFactory;
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.internal.services.ServicesActivator;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.packageadmin.PackageAdmin;
+
+/**
+ * Contribution factory that remembers the classes of the "bundleclass://" contribution URIs it
+ * resolved, so that creating a contribution again does not look up the bundle and load the
+ * class again. URIs it can not resolve are passed to another factory.
+ * <p>
+ * Contributions that keep no state can be pooled: a single instance is created for a pooled
+ * URI and returned for all later requests, whatever the context. Pooled instances are created
+ * in a context of their own that provides the OSGi services, so that they are not affected by
+ * the disposal of the contexts they are requested from. The static context of a request is not
+ * used for pooled URIs.
+ * </p>
+ * <p>
+ * The remembered classes are discarded, and the pooled instances disposed, when bundles are
+ * resolved, unresolved, updated or uninstalled.
+ * </p>
+ */
+// There is no replacement for PackageAdmin#getBundles()
+@SuppressWarnings("deprecation")
+public class CachingContributionFactory implements IContributionFactory {
+
+	final private static String BUNDLE_CLASS_SCHEMA = "bundleclass"; //$NON-NLS-1$
+
+	final private IContributionFactory delegate;
+
+	final private Map<String, Class<?>> classes = new ConcurrentHashMap<String, Class<?>>();
+	final private Map<String, Boolean> pooled = new ConcurrentHashMap<String, Boolean>();
+	final private Map<String, Object> pool = new ConcurrentHashMap<String, Object>();
+	private volatile int bundleChanges;
+
+	private IEclipseContext poolContext; // guarded by pool
+
+	/**
+	 * @param delegate
+	 *            the factory used for URIs that are not resolved by this factory
+	 */
+	public CachingContributionFactory(IContributionFactory delegate) {
+		this.delegate = delegate;
+		bundleChanges = currentBundleChanges();
+	}
+
+	/**
+	 * Sets whether a single instance is used for all requests of the contribution URI. Only use
+	 * for contributions that keep no state and don't depend on the context they are created in.
+	 */
+	public void setPooled(String uriString, boolean isPooled) {
+		if (isPooled) {
+			pooled.put(uriString, Boolean.TRUE);
+		} else {
+			pooled.remove(uriString);
+			synchronized (pool) {
+				Object instance = pool.remove(uriString);
+				if (instance != null)
+					ContextInjectionFactory.uninject(instance, poolContext);
+			}
+		}
+	}
+
+	public Object create(String uriString, IEclipseContext context) {
+		return create(uriString, context, null);
+	}
+
+	public Object create(String uriString, IEclipseContext context, IEclipseContext staticContext) {
+		if (uriString == null)
+			return delegate.create(uriString, context, staticContext);
+		checkBundleChanges();
+		if (pooled.containsKey(uriString))
+			return createPooled(uriString, context, staticContext);
+		Class<?> clazz = getContributionClass(uriString);
+		if (clazz == null)
+			return delegate.create(uriString, context, staticContext);
+		if (staticContext == null)
+			return ContextInjectionFactory.make(clazz, context);
+		return ContextInjectionFactory.make(clazz, context, staticContext);
+	}
+
+	private Object createPooled(String uriString, IEclipseContext context, IEclipseContext staticContext) {
+		Object instance = pool.get(uriString);
+		if (instance != null)
+			return instance;
+		synchronized (pool) {
+			instance = pool.get(uriString);
+			if (instance != null)
+				return instance;
+			Class<?> clazz = getContributionClass(uriString);
+			if (clazz == null)
+				return delegate.create(uriString, context, staticContext);
+			// the static context belongs to this request only
+			instance = ContextInjectionFactory.make(clazz, getPoolContext());
+			if (instance != null)
+				pool.put(uriString, instance);
+			return instance;
+		}
+	}
+
+	private IEclipseContext getPoolContext() {
+		if (poolContext == null) {
+			ServicesActivator activator = ServicesActivator.getDefault();
+			BundleContext bundleContext = (activator == null) ? null : activator.getBundleContext();
+			if (bundleContext == null)
+				poolContext = EclipseContextFactory.create("Pooled contributions"); //$NON-NLS-1$
+			else
+				poolContext = EclipseContextFactory.getServiceContext(bundleContext).createChild("Pooled contributions"); //$NON-NLS-1$
+		}
+		return poolContext;
+	}
+
+	/**
+	 * Discards the pooled instances and the context they were created in.
+	 */
+	public void dispose() {
+		disposePool();
+	}
+
+	private void disposePool() {
+		synchronized (pool) {
+			pool.clear();
+			if (poolContext != null) {
+				poolContext.dispose();
+				poolContext = null;
+			}
+		}
+	}
+
+	public Bundle getBundle(String uriString) {
+		return delegate.getBundle(uriString);
+	}
+
+	private Class<?> getContributionClass(String uriString) {
+		Class<?> clazz = classes.get(uriString);
+		if (clazz != null)
+			return clazz;
+		URI uri;
+		try {
+			uri = new URI(uriString);
+		} catch (URISyntaxException e) {
+			return null; // let the other factory report it
+		}
+		if (!BUNDLE_CLASS_SCHEMA.equals(uri.getScheme()) || uri.getPath() == null || uri.getPath().length() < 2)
+			return null;
+		Bundle bundle = findBundle(uri.getAuthority());
+		if (bundle == null)
+			return null;
+		try {
+			clazz = bundle.loadClass(uri.getPath().substring(1));
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+		classes.put(uriString, clazz);
+		return clazz;
+	}
+
+	private Bundle findBundle(String bundleName) {
+		if (bundleName == null)
+			return null;
+		ServicesActivator activator = ServicesActivator.getDefault();
+		PackageAdmin packageAdmin = (activator == null) ? null : activator.getPackageAdmin();
+		if (packageAdmin == null)
+			return null;
+		Bundle[] bundles = packageAdmin.getBundles(bundleName, null);
+		if (bundles == null)
+			return null;
+		// Return the first bundle that is not installed or uninstalled
+		for (int i = 0; i < bundles.length; i++) {
+			if ((bundles[i].getState() & (Bundle.INSTALLED | Bundle.UNINSTALLED)) == 0)
+				return bundles[i];
+		}
+		return null;
+	}
+
+	private void checkBundleChanges() {
+		int current = currentBundleChanges();
+		if (current == bundleChanges)
+			return;
+		bundleChanges = current;
+		classes.clear();
+		disposePool();
+	}
+
+	static private int currentBundleChanges() {
+		ServicesActivator activator = ServicesActivator.getDefault();
+		return (activator == null) ? 0 : activator.getBundleChanges();
+	}
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.core.services.events;
+
+import java.util.List;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+
+/**
+ * Optional service that sets how the events posted on a topic are delivered. Subscribers that
+ * only care about the latest event of a high-rate topic can have the events of that topic
+ * conflated or batched.
+ * <p>
+ * The service is registered as an OSGi service. To obtain it from the {@link IEclipseContext}
+ * context, use
+ * </p>
+ * 
+ * <pre>
+ * (IEventDeliveryPolicy) context.get(IEventDeliveryPolicy.class.getName())
+ * </pre>
+ * <p>
+ * Policies only apply to events published asynchronously: event broker implementations hand
+ * the events given to {@link IEventBroker#post(String, Object)} to {@link #post(Event, EventAdmin)}
+ * and only post the events that are not queued by this service.
+ * </p>
+ * 
+ * @noimplement This interface is not intended to be implemented by clients.
+ * @since 1.2
+ */
+public interface IEventDeliveryPolicy {
+
+	/**
+	 * Every event posted on the topic is delivered. This is the default policy.
+	 */
+	public int DELIVER_ALL = 0;
+
+	/**
+	 * An event posted on the topic replaces the events posted on that topic that have not been
+	 * delivered yet; subscribers only receive the most recent event.
+	 */
+	public int DELIVER_LATEST = 1;
+
+	/**
+	 * Events posted on the topic are held and delivered once per interval as a single event.
+	 * The {@link IEventBroker#DATA} of that event is a {@link List} holding the data of the held
+	 * events, in the order they were posted.
+	 */
+	public int DELIVER_BATCH = 2;
+
+	/**
+	 * Sets the delivery policy for a topic. Events already queued for the topic are still
+	 * delivered under the previous policy.
+	 * 
+	 * @param topic
+	 *            the topic the policy applies to; wildcards are not supported
+	 * @param policy
+	 *            one of {@link #DELIVER_ALL}, {@link #DELIVER_LATEST} or {@link #DELIVER_BATCH}
+	 * @param interval
+	 *            the number of milliseconds events are held before they are delivered. Ignored
+	 *            for {@link #DELIVER_ALL}
+	 * @throws IllegalArgumentException
+	 *             if the topic is <code>null</code>, the policy is unknown or the interval is
+	 *             negative
+	 */
+	public void setPolicy(String topic, int policy, long interval);
+
+	/**
+	 * Queues a posted event if a policy applies to its topic. Queued events are posted to the
+	 * given event admin by a background job. Called by event broker implementations.
+	 * 
+	 * @param event
+	 *            the posted event
+	 * @param eventAdmin
+	 *            the event admin the event is to be posted to
+	 * @return <code>true</code> if the event was queued; <code>false</code> if the caller should
+	 *         post the event itself
+	 */
+	public boolean post(Event event, EventAdmin eventAdmin);
+}
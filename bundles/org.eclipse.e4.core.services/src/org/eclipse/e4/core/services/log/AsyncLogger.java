@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.core.services.log;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logger that hands messages to another logger on a background thread, so that logging does
+ * not block the calling thread. Levels are checked on the calling thread; only enabled messages
+ * are queued.
+ * <p>
+ * At most <code>capacity</code> messages are queued. Messages logged while the queue is full are
+ * dropped and their number is reported as a warning once the writer catches up. Errors are
+ * never dropped.
+ * </p>
+ */
+public class AsyncLogger extends Logger {
+
+	final private static int ERROR = 0;
+	final private static int WARN = 1;
+	final private static int INFO = 2;
+	final private static int TRACE = 3;
+	final private static int DEBUG = 4;
+
+	final private static long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(100);
+
+	static private class Entry {
+		final int level;
+		final Throwable t;
+		final String message;
+
+		Entry(int level, Throwable t, String message) {
+			this.level = level;
+			this.t = t;
+			this.message = message;
+		}
+	}
+
+	final private Logger delegate;
+	final private int capacity;
+
+	final private Queue<Entry> queue = new ConcurrentLinkedQueue<Entry>();
+	final private AtomicInteger size = new AtomicInteger();
+	final private AtomicInteger dropped = new AtomicInteger();
+	final private AtomicLong queued = new AtomicLong();
+	final private AtomicLong written = new AtomicLong();
+
+	// flush() waits on this lock while flushing is not 0
+	final private Object flushLock = new Object();
+	final private AtomicInteger flushing = new AtomicInteger();
+
+	final private Thread writer;
+	private volatile boolean disposed = false;
+
+	public AsyncLogger(Logger delegate) {
+		this(delegate, 1024);
+	}
+
+	public AsyncLogger(Logger delegate, int capacity) {
+		if (delegate == null || capacity <= 0)
+			throw new IllegalArgumentException();
+		this.delegate = delegate;
+		this.capacity = capacity;
+		writer = new Thread("Asynchronous logger") { //$NON-NLS-1$
+			public void run() {
+				write();
+			}
+		};
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	public boolean isErrorEnabled() {
+		return delegate.isErrorEnabled();
+	}
+
+	public void error(Throwable t, String message) {
+		if (isErrorEnabled())
+			add(ERROR, t, message);
+	}
+
+	public boolean isWarnEnabled() {
+		return delegate.isWarnEnabled();
+	}
+
+	public void warn(Throwable t, String message) {
+		if (isWarnEnabled())
+			add(WARN, t, message);
+	}
+
+	public boolean isInfoEnabled() {
+		return delegate.isInfoEnabled();
+	}
+
+	public void info(Throwable t, String message) {
+		if (isInfoEnabled())
+			add(INFO, t, message);
+	}
+
+	public boolean isTraceEnabled() {
+		return delegate.isTraceEnabled();
+	}
+
+	public void trace(Throwable t, String message) {
+		if (isTraceEnabled())
+			add(TRACE, t, message);
+	}
+
+	public boolean isDebugEnabled() {
+		return delegate.isDebugEnabled();
+	}
+
+	public void debug(Throwable t) {
+		debug(t, null);
+	}
+
+	public void debug(Throwable t, String message) {
+		if (isDebugEnabled())
+			add(DEBUG, t, message);
+	}
+
+	/**
+	 * Waits until the messages logged so far have been handed to the underlying logger.
+	 */
+	public void flush() {
+		long target = queued.get();
+		if (written.get() >= target)
+			return;
+		flushing.incrementAndGet();
+		try {
+			LockSupport.unpark(writer);
+			synchronized (flushLock) {
+				while (written.get() < target && writer.isAlive())
+					flushLock.wait(100);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			flushing.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Writes the queued messages and stops the background thread. Messages logged afterwards
+	 * are passed to the underlying logger directly.
+	 */
+	public void dispose() {
+		disposed = true;
+		LockSupport.unpark(writer);
+		awaitWriter();
+	}
+
+	private void awaitWriter() {
+		if (Thread.currentThread() == writer)
+			return;
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void add(int level, Throwable t, String message) {
+		if (disposed) {
+			log(level, t, message);
+			return;
+		}
+		if (size.incrementAndGet() > capacity && level != ERROR) {
+			size.decrementAndGet();
+			dropped.incrementAndGet();
+			return;
+		}
+		queue.add(new Entry(level, t, message));
+		queued.incrementAndGet();
+		LockSupport.unpark(writer);
+		if (disposed) {
+			// the writer may have stopped before the message was queued
+			awaitWriter();
+			drain();
+		}
+	}
+
+	private void drain() {
+		for (Entry entry = queue.poll(); entry != null; entry = queue.poll()) {
+			size.decrementAndGet();
+			log(entry);
+		}
+		reportDropped();
+	}
+
+	private void write() {
+		while (true) {
+			Entry entry = queue.poll();
+			if (entry == null) {
+				reportDropped();
+				if (disposed && queue.isEmpty())
+					return;
+				LockSupport.parkNanos(IDLE_WAIT);
+				continue;
+			}
+			size.decrementAndGet();
+			log(entry);
+		}
+	}
+
+	private void reportDropped() {
+		int droppedCount = dropped.getAndSet(0);
+		if (droppedCount != 0)
+			delegate.warn((Throwable) null, droppedCount + " log messages were dropped"); //$NON-NLS-1$
+	}
+
+	private void log(Entry entry) {
+		try {
+			log(entry.level, entry.t, entry.message);
+		} catch (RuntimeException e) {
+			// the underlying logger failed; nothing sensible to do but keep going
+		} finally {
+			written.incrementAndGet();
+			if (flushing.get() != 0) {
+				synchronized (flushLock) {
+					flushLock.notifyAll();
+				}
+			}
+		}
+	}
+
+	private void log(int level, Throwable t, String message) {
+		switch (level) {
+			case ERROR :
+				delegate.error(t, message);
+				break;
+			case WARN :
+				delegate.warn(t, message);
+				break;
+			case INFO :
+				delegate.info(t, message);
+				break;
+			case TRACE :
+				delegate.trace(t, message);
+				break;
+			case DEBUG :
+				delegate.debug(t, message);
+				break;
+		}
+	}
+}
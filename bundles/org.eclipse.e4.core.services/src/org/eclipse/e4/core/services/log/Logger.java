@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2010 IBM Corporation and others.
+ * Copyright (c) 2009, 2013 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,9 @@ import org.eclipse.e4.core.services.statusreporter.StatusReporter;
  * Logging warnings, errors, information, as well as capturing debug and trace information.
  * Everything done through this interface is not meant for normal end users. Strings are not
  * expected to be translated.
+ * <p>
+ * Messages with arguments are only formatted if the corresponding level is enabled.
+ * </p>
  * 
  * @see StatusReporter
  */
@@ -47,14 +50,20 @@ public abstract class Logger {
 	}
 
 	public void debug(String format, Object arg) {
+		if (!isDebugEnabled())
+			return;
 		debug(internalBind(format, null, String.valueOf(arg), null));
 	}
 
 	public void debug(String format, Object arg1, Object arg2) {
+		if (!isDebugEnabled())
+			return;
 		debug(internalBind(format, null, String.valueOf(arg1), String.valueOf(arg2)));
 	}
 
 	public void debug(String format, Object[] args) {
+		if (!isDebugEnabled())
+			return;
 		debug(internalBind(format, args, null, null));
 	}
 
@@ -67,14 +76,20 @@ public abstract class Logger {
 	}
 
 	public void error(String format, Object arg) {
+		if (!isErrorEnabled())
+			return;
 		error(internalBind(format, null, String.valueOf(arg), null));
 	}
 
 	public void error(String format, Object arg1, Object arg2) {
+		if (!isErrorEnabled())
+			return;
 		error(internalBind(format, null, String.valueOf(arg1), String.valueOf(arg2)));
 	}
 
 	public void error(String format, Object[] args) {
+		if (!isErrorEnabled())
+			return;
 		error(internalBind(format, args, null, null));
 	}
 
@@ -87,14 +102,20 @@ public abstract class Logger {
 	}
 
 	public void info(String format, Object arg) {
+		if (!isInfoEnabled())
+			return;
 		info(internalBind(format, null, String.valueOf(arg), null));
 	}
 
 	public void info(String format, Object arg1, Object arg2) {
+		if (!isInfoEnabled())
+			return;
 		info(internalBind(format, null, String.valueOf(arg1), String.valueOf(arg2)));
 	}
 
 	public void info(String format, Object[] args) {
+		if (!isInfoEnabled())
+			return;
 		info(internalBind(format, args, null, null));
 	}
 
@@ -107,14 +128,20 @@ public abstract class Logger {
 	}
 
 	public void trace(String format, Object arg) {
+		if (!isTraceEnabled())
+			return;
 		trace(internalBind(format, null, String.valueOf(arg), null));
 	}
 
 	public void trace(String format, Object arg1, Object arg2) {
+		if (!isTraceEnabled())
+			return;
 		trace(internalBind(format, null, String.valueOf(arg1), String.valueOf(arg2)));
 	}
 
 	public void trace(String format, Object[] args) {
+		if (!isTraceEnabled())
+			return;
 		trace(internalBind(format, args, null, null));
 	}
 
@@ -127,14 +154,20 @@ public abstract class Logger {
 	}
 
 	public void warn(String format, Object arg) {
+		if (!isWarnEnabled())
+			return;
 		warn(internalBind(format, null, String.valueOf(arg), null));
 	}
 
 	public void warn(String format, Object arg1, Object arg2) {
+		if (!isWarnEnabled())
+			return;
 		warn(internalBind(format, null, String.valueOf(arg1), String.valueOf(arg2)));
 	}
 
 	public void warn(String format, Object[] args) {
+		if (!isWarnEnabled())
+			return;
 		warn(internalBind(format, args, null, null));
 	}
 
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.core.services.statusreporter;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * Status reporter that passes statuses to another reporter from a background job and drops
+ * repeated statuses.
+ * <p>
+ * Statuses with the same plug-in, code, message and exception type reported within the window
+ * are reported only once. When the window closes, the number of dropped repetitions is logged.
+ * Statuses reported with the {@link #BLOCK} style, and statuses reported once the reporter is
+ * disposed, are passed to the other reporter directly.
+ * </p>
+ */
+public class ThrottlingStatusReporter extends StatusReporter {
+
+	static private class Key {
+		final private String plugin;
+		final private int code;
+		final private String message;
+		final private String exceptionType;
+
+		Key(IStatus status) {
+			plugin = status.getPlugin();
+			code = status.getCode();
+			message = status.getMessage();
+			Throwable exception = status.getException();
+			exceptionType = (exception == null) ? null : exception.getClass().getName();
+		}
+
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + code;
+			result = prime * result + ((plugin == null) ? 0 : plugin.hashCode());
+			result = prime * result + ((message == null) ? 0 : message.hashCode());
+			result = prime * result + ((exceptionType == null) ? 0 : exceptionType.hashCode());
+			return result;
+		}
+
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			Key other = (Key) obj;
+			return code == other.code && equals(plugin, other.plugin) && equals(message, other.message) && equals(exceptionType, other.exceptionType);
+		}
+
+		static private boolean equals(String s1, String s2) {
+			return (s1 == null) ? s2 == null : s1.equals(s2);
+		}
+	}
+
+	static private class Report {
+		final IStatus status;
+		final int style;
+		final Object[] information;
+
+		Report(IStatus status, int style, Object[] information) {
+			this.status = status;
+			this.style = style;
+			this.information = information;
+		}
+	}
+
+	/**
+	 * A status reported during the current window and the number of its repetitions.
+	 */
+	static private class Window {
+		final Report report;
+		final long end;
+		private int repeated = 0; // guarded by this
+		private boolean closed = false; // guarded by this
+
+		Window(Report report, long end) {
+			this.report = report;
+			this.end = end;
+		}
+
+		synchronized boolean repeat() {
+			if (closed)
+				return false;
+			repeated++;
+			return true;
+		}
+
+		/**
+		 * Closes the window and returns the number of repetitions, or <code>0</code> if the
+		 * window was already closed.
+		 */
+		synchronized int close() {
+			if (closed)
+				return 0;
+			closed = true;
+			return repeated;
+		}
+	}
+
+	private class ReportJob extends Job {
+
+		public ReportJob() {
+			super("Status reporting"); //$NON-NLS-1$
+			setSystem(true);
+		}
+
+		protected IStatus run(IProgressMonitor monitor) {
+			reportPending();
+			long now = System.currentTimeMillis();
+			long nextEnd = Long.MAX_VALUE;
+			for (Iterator<Window> i = windows.values().iterator(); i.hasNext();) {
+				Window window = i.next();
+				if (window.end > now) {
+					nextEnd = Math.min(nextEnd, window.end);
+					continue;
+				}
+				i.remove();
+				int repeated = window.close();
+				if (repeated != 0)
+					reportRepeated(window.report, repeated);
+			}
+			if (nextEnd != Long.MAX_VALUE && !disposed)
+				schedule(nextEnd - now);
+			// rescheduling replaces the schedule() of statuses reported while the job ran
+			if (!pending.isEmpty() && !disposed)
+				schedule();
+			return Status.OK_STATUS;
+		}
+	}
+
+	final private StatusReporter delegate;
+	final private long window;
+
+	final private ConcurrentMap<Key, Window> windows = new ConcurrentHashMap<Key, Window>();
+	final private Queue<Report> pending = new ConcurrentLinkedQueue<Report>();
+	final private ReportJob job = new ReportJob();
+	private volatile boolean disposed = false;
+
+	/**
+	 * @param delegate
+	 *            the reporter to pass statuses to
+	 * @param window
+	 *            the number of milliseconds during which repetitions of a status are dropped
+	 */
+	public ThrottlingStatusReporter(StatusReporter delegate, long window) {
+		if (delegate == null || window < 0)
+			throw new IllegalArgumentException();
+		this.delegate = delegate;
+		this.window = window;
+	}
+
+	public void report(IStatus status, int style, Object... information) {
+		if ((style & BLOCK) != 0 || disposed) {
+			delegate.report(status, style, information);
+			return;
+		}
+		Key key = new Key(status);
+		Report report = new Report(status, style, information);
+		while (true) {
+			Window current = windows.get(key);
+			if (current != null) {
+				if (current.repeat())
+					return;
+				windows.remove(key, current); // closed while we were looking at it
+				continue;
+			}
+			if (windows.putIfAbsent(key, new Window(report, System.currentTimeMillis() + window)) == null)
+				break;
+		}
+		pending.add(report);
+		if (disposed) {
+			reportPending(); // the reporter was disposed while the status was added
+		} else {
+			job.schedule();
+			job.wakeUp(); // schedule() has no effect while the job waits for a window to close
+		}
+	}
+
+	public IStatus newStatus(int severity, String message, Throwable exception) {
+		return delegate.newStatus(severity, message, exception);
+	}
+
+	/**
+	 * Reports the remaining statuses and the number of dropped repetitions, and stops dropping
+	 * repetitions. Statuses reported afterwards are passed to the other reporter directly.
+	 */
+	public void dispose() {
+		disposed = true;
+		job.cancel();
+		reportPending();
+		for (Iterator<Window> i = windows.values().iterator(); i.hasNext();) {
+			Window window = i.next();
+			i.remove();
+			int repeated = window.close();
+			if (repeated != 0)
+				reportRepeated(window.report, repeated);
+		}
+	}
+
+	private void reportPending() {
+		for (Report report = pending.poll(); report != null; report = pending.poll()) {
+			delegate.report(report.status, report.style, report.information);
+		}
+	}
+
+	private void reportRepeated(Report report, int repeated) {
+		int length = (report.information == null) ? 0 : report.information.length;
+		Object[] information = new Object[length + 1];
+		if (length != 0)
+			System.arraycopy(report.information, 0, information, 0, length);
+		information[length] = "Status was reported " + repeated + " more times"; //$NON-NLS-1$ //$NON-NLS-2$
+		delegate.report(report.status, LOG, information);
+	}
+}
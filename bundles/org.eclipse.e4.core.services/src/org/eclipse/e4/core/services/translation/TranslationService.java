@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011 IBM Corporation and others.
+ * Copyright (c) 2011, 2013 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -48,4 +48,24 @@ abstract public class TranslationService {
 	public String translate(String key, String contributorURI) {
 		return key;
 	}
+
+	/**
+	 * Translates the keys from the contributor. Implementations can override this method to
+	 * look up the contributor only once for all the keys.
+	 * 
+	 * @param keys
+	 *            the keys
+	 * @param contributorURI
+	 *            URI of the contributor
+	 * @return localized values in the order of the keys; the original key is returned for keys
+	 *         that can not be translated
+	 * @see #translate(String, String)
+	 * @since 1.2
+	 */
+	public String[] translate(String[] keys, String contributorURI) {
+		String[] result = new String[keys.length];
+		for (int i = 0; i < keys.length; i++)
+			result[i] = translate(keys[i], contributorURI);
+		return result;
+	}
 }
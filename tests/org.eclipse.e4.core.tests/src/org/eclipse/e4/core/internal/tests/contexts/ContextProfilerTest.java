@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.core.internal.tests.contexts;
+
+import junit.framework.TestCase;
+
+import org.eclipse.e4.core.contexts.ContextFunction;
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.contexts.RunAndTrack;
+import org.eclipse.e4.core.internal.contexts.ContextProfiler;
+
+public class ContextProfilerTest extends TestCase {
+
+	static class Sum extends ContextFunction {
+		public Object compute(IEclipseContext context, String contextKey) {
+			return new Integer(((Integer) context.get("x")).intValue() + 1);
+		}
+	}
+
+	static class Tracker extends RunAndTrack {
+		public boolean changed(IEclipseContext context) {
+			context.get("x");
+			return true;
+		}
+	}
+
+	private boolean wasEnabled;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		wasEnabled = ContextProfiler.isEnabled();
+		ContextProfiler.reset();
+		ContextProfiler.setEnabled(true);
+	}
+
+	protected void tearDown() throws Exception {
+		ContextProfiler.setEnabled(wasEnabled);
+		ContextProfiler.reset();
+		super.tearDown();
+	}
+
+	public void testLookupDepth() {
+		IEclipseContext root = EclipseContextFactory.create();
+		IEclipseContext child = root.createChild();
+		IEclipseContext grandChild = child.createChild();
+		root.set("a", "a");
+
+		root.get("a");
+		grandChild.get("a");
+		assertEquals(2, ContextProfiler.getLookupCount("a"));
+		assertEquals(1.0, ContextProfiler.getAverageDepth("a"), 0.001);
+		assertEquals(0, ContextProfiler.getLookupCount("b"));
+	}
+
+	public void testCacheHitRatio() {
+		IEclipseContext context = EclipseContextFactory.create();
+		context.set("x", new Integer(1));
+		context.set("sum", new Sum());
+
+		assertEquals(new Integer(2), context.get("sum"));
+		assertEquals(new Integer(2), context.get("sum"));
+		assertEquals(new Integer(2), context.get("sum"));
+		assertEquals(2.0 / 3.0, ContextProfiler.getCacheHitRatio("sum"), 0.001);
+		assertEquals(1, ContextProfiler.getExecutionCount(Sum.class.getName()));
+
+		context.set("x", new Integer(2));
+		assertEquals(new Integer(3), context.get("sum"));
+		assertEquals(2, ContextProfiler.getExecutionCount(Sum.class.getName()));
+	}
+
+	public void testRunAndTrack() {
+		IEclipseContext context = EclipseContextFactory.create();
+		context.set("x", new Integer(1));
+		context.runAndTrack(new Tracker());
+		context.set("x", new Integer(2));
+		assertEquals(2, ContextProfiler.getExecutionCount(Tracker.class.getName()));
+		assertTrue(ContextProfiler.getExecutionTime(Tracker.class.getName()) >= 0);
+
+		String report = ContextProfiler.getReport();
+		assertTrue(report.indexOf(Tracker.class.getName()) != -1);
+		assertTrue(report.indexOf("x\t") != -1);
+	}
+
+	public void testDisabled() {
+		ContextProfiler.setEnabled(false);
+		IEclipseContext context = EclipseContextFactory.create();
+		context.set("a", "a");
+		context.get("a");
+		assertEquals(0, ContextProfiler.getLookupCount("a"));
+	}
+}
@@ -10,12 +10,17 @@
  *******************************************************************************/
 package org.eclipse.e4.core.internal.tests.contexts;
 
+import java.util.Set;
+
 import junit.framework.TestCase;
 
 import org.eclipse.e4.core.contexts.ContextFunction;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.internal.contexts.Computation;
+import org.eclipse.e4.core.internal.contexts.ContextChangeEvent;
 import org.eclipse.e4.core.internal.contexts.EclipseContext;
+import org.eclipse.e4.core.internal.contexts.WeakGroupedListenerList;
 
 public class DependenciesLeakTest extends TestCase {
 
@@ -36,6 +41,28 @@ public class DependenciesLeakTest extends TestCase {
 		}
 	}
 	
+	static class TestComputation extends Computation {
+		final private String id;
+		public TestComputation(String id) {
+			this.id = id;
+			init();
+		}
+		@Override
+		protected int calcHashCode() {
+			return id.hashCode();
+		}
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof TestComputation))
+				return false;
+			return id.equals(((TestComputation) obj).id);
+		}
+		@Override
+		public void handleInvalid(ContextChangeEvent event, Set scheduled) {
+			// nothing to do
+		}
+	}
+
 	private IEclipseContext windowContext;
 	private IEclipseContext perspectiveContext;
 	private IEclipseContext partContext;
@@ -89,6 +116,49 @@ public class DependenciesLeakTest extends TestCase {
 		assertNoListeners(partContext);
 	}
 	
+	public void testCollectedListenersArePurged() {
+		WeakGroupedListenerList list = new WeakGroupedListenerList();
+		TestComputation kept = new TestComputation("kept");
+		list.add("a", kept);
+		addTransient(list);
+		assertEquals(3, list.getNames().size());
+
+		for (int i = 0; i < 4 && list.getNames().size() > 1; i++) {
+			System.runFinalization();
+			System.gc();
+		}
+		// groups that only had collected listeners must be gone without explicit cleanup
+		assertEquals(1, list.getNames().size());
+		assertTrue(list.getNames().contains("a"));
+		assertEquals(1, list.getListeners().size());
+	}
+
+	public void testGroupSnapshot() {
+		WeakGroupedListenerList list = new WeakGroupedListenerList();
+		TestComputation c1 = new TestComputation("c1");
+		TestComputation c2 = new TestComputation("c2");
+		list.add("a", c1);
+		list.add("a", c2);
+		Set<Computation> group = list.getListeners("a");
+		int count = 0;
+		for (Computation computation : group) {
+			list.remove(computation);
+			list.add("b", computation);
+			count++;
+		}
+		assertEquals(2, count);
+		assertEquals(2, group.size());
+		assertTrue(list.getListeners("a").isEmpty());
+		assertEquals(2, list.getListeners("b").size());
+		assertNull(list.getListeners("c"));
+	}
+
+	private void addTransient(WeakGroupedListenerList list) {
+		// do it in a separate method to ease GC
+		list.add("b", new TestComputation("b"));
+		list.add("c", new TestComputation("c"));
+	}
+
 	private void assertNoListeners(IEclipseContext context) {
 		EclipseContext c = (EclipseContext) context;
 		try {
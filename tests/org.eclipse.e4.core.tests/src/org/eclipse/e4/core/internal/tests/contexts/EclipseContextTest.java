@@ -14,6 +14,7 @@ import junit.framework.TestCase;
 
 import org.eclipse.e4.core.contexts.ContextFunction;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.e4.core.contexts.IContextSnapshot;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.contexts.RunAndTrack;
 import org.eclipse.e4.core.internal.contexts.EclipseContext;
@@ -312,6 +313,68 @@ public class EclipseContextTest extends TestCase {
 		assertNull(child.get("x"));
 	}
 
+	public void testSnapshot() {
+		parentContext.set("x", new Integer(1));
+		parentContext.set("y", new Integer(2));
+		parentContext.set("sum", new AddContextFunction());
+		context.set("y", new Integer(5));
+
+		IContextSnapshot snapshot = context.snapshot();
+		assertEquals(new Integer(1), snapshot.get("x"));
+		assertEquals(new Integer(5), snapshot.get("y"));
+		assertEquals(new Integer(6), snapshot.get("sum"));
+		assertFalse(snapshot.containsKey("z"));
+		assertFalse(snapshot.containsKey(EclipseContext.PARENT));
+
+		parentContext.set("x", new Integer(10));
+		context.remove("y");
+		context.set("z", "z");
+		assertEquals(new Integer(1), snapshot.get("x"));
+		assertEquals(new Integer(5), snapshot.get("y"));
+		assertEquals(new Integer(6), snapshot.get("sum"));
+		assertFalse(snapshot.containsKey("z"));
+
+		IContextSnapshot newSnapshot = context.snapshot();
+		assertEquals(new Integer(10), newSnapshot.get("x"));
+		assertEquals(new Integer(2), newSnapshot.get("y"));
+		assertEquals(new Integer(12), newSnapshot.get("sum"));
+		assertEquals("z", newSnapshot.get("z"));
+	}
+
+	public void testSnapshotComputesFunctions() throws Exception {
+		final int[] computations = new int[1];
+		final Thread[] computingThread = new Thread[1];
+		context.set("x", new Integer(1));
+		context.set("counted", new ContextFunction() {
+			public Object compute(IEclipseContext context, String contextKey) {
+				computations[0]++;
+				computingThread[0] = Thread.currentThread();
+				return context.get("x");
+			}
+		});
+
+		// context functions are computed when the snapshot is taken
+		final IContextSnapshot snapshot = context.snapshot();
+		assertEquals(1, computations[0]);
+		assertSame(Thread.currentThread(), computingThread[0]);
+		context.set("x", new Integer(2));
+		final Object[] value = new Object[1];
+		Thread reader = new Thread() {
+			public void run() {
+				value[0] = snapshot.get("counted");
+			}
+		};
+		reader.start();
+		reader.join();
+		assertEquals(new Integer(1), value[0]);
+
+		// values already computed by the context are reused
+		assertEquals(new Integer(2), context.get("counted"));
+		int count = computations[0];
+		assertEquals(new Integer(2), context.snapshot().get("counted"));
+		assertEquals(count, computations[0]);
+	}
+
 	private int listenersCount(IEclipseContext context) {
 		return ((EclipseContext) context).getListeners().size();		
 	}
@@ -14,9 +14,12 @@ package org.eclipse.e4.core.internal.tests.contexts;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import junit.framework.TestCase;
 
+import org.eclipse.e4.core.contexts.AsyncRunAndTrack;
 import org.eclipse.e4.core.contexts.ContextFunction;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
@@ -229,6 +232,85 @@ public class RunAndTrackTest extends TestCase {
 		assertEquals("part1", windows[0].get(ACTIVE_PART_ID));
 	}
 	
+	public void testAsyncRunAndTrack() throws Exception {
+		final List<Runnable> queue = new ArrayList<Runnable>();
+		Executor executor = new Executor() {
+			public void execute(Runnable command) {
+				queue.add(command);
+			}
+		};
+		final IEclipseContext context = EclipseContextFactory.create();
+		context.set("v", "0");
+		final List<Object> seen = new ArrayList<Object>();
+		AsyncRunAndTrack runnable = new AsyncRunAndTrack(executor) {
+			public boolean changed(IEclipseContext context) {
+				seen.add(context.get("v"));
+				return true;
+			}
+		};
+		context.runAndTrack(runnable);
+		// initial run is synchronous
+		assertEquals(1, seen.size());
+		assertEquals("0", seen.get(0));
+		assertTrue(queue.isEmpty());
+
+		context.set("v", "1");
+		context.set("v", "2");
+		context.set("v", "3");
+		assertEquals(1, seen.size());
+		assertEquals(1, queue.size());
+		assertEquals(1, runnable.getScheduledCount());
+		assertEquals(2, runnable.getCoalescedCount());
+
+		queue.remove(0).run();
+		assertEquals(2, seen.size());
+		assertEquals("3", seen.get(1));
+
+		// dependencies are still tracked after an asynchronous run
+		context.set("v", "4");
+		assertEquals(1, queue.size());
+		assertEquals(2, runnable.getScheduledCount());
+		queue.remove(0).run();
+		assertEquals("4", seen.get(2));
+
+		// pending runs are dropped once the context is gone
+		context.set("v", "5");
+		context.dispose();
+		int calls = seen.size();
+		for (Runnable command : new ArrayList<Runnable>(queue))
+			command.run();
+		assertEquals(calls, seen.size());
+	}
+
+	public void testAsyncRunAndTrackRejected() {
+		Executor executor = new Executor() {
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException();
+			}
+		};
+		IEclipseContext context = EclipseContextFactory.create();
+		context.set("v", "0");
+		final List<Object> seen = new ArrayList<Object>();
+		AsyncRunAndTrack runnable = new AsyncRunAndTrack(executor) {
+			public boolean changed(IEclipseContext context) {
+				seen.add(context.get("v"));
+				return true;
+			}
+		};
+		context.runAndTrack(runnable);
+		assertEquals(1, seen.size());
+
+		// rejected runs are made right away and don't block later changes
+		context.set("v", "1");
+		assertEquals(2, seen.size());
+		assertEquals("1", seen.get(1));
+		context.set("v", "2");
+		assertEquals(3, seen.size());
+		assertEquals("2", seen.get(2));
+		assertEquals(2, runnable.getScheduledCount());
+		assertEquals(0, runnable.getCoalescedCount());
+	}
+
 	/**
 	 * Test how a RAT responds to a change hidden from it; changed value is == to child value
 	 */
@@ -137,4 +137,46 @@ public class ContextInjectionDisposeTest extends TestCase {
 		assertTrue(object.disposeInvoked);
 	}
 
+	static public class EqualInjected {
+		int disposeCount = 0;
+
+		@Inject
+		String field;
+
+		@PreDestroy
+		public void dispose() {
+			disposeCount++;
+		}
+
+		public boolean equals(Object obj) {
+			return obj instanceof EqualInjected; // all instances are equal
+		}
+
+		public int hashCode() {
+			return 0;
+		}
+	}
+
+	/**
+	 * Objects are tracked by identity: equal objects are disposed separately.
+	 */
+	public void testDisposeEqualObjects() {
+		IEclipseContext context = EclipseContextFactory.create();
+		context.set(String.class.getName(), "hello");
+		EqualInjected[] objects = new EqualInjected[100];
+		for (int i = 0; i < objects.length; i++) {
+			objects[i] = new EqualInjected();
+			ContextInjectionFactory.inject(objects[i], context);
+		}
+		// re-injecting does not register the object twice
+		ContextInjectionFactory.inject(objects[0], context);
+		ContextInjectionFactory.uninject(objects[1], context);
+		assertEquals(1, objects[1].disposeCount);
+
+		context.dispose();
+		for (int i = 0; i < objects.length; i++) {
+			assertEquals(1, objects[i].disposeCount);
+		}
+	}
+
 }
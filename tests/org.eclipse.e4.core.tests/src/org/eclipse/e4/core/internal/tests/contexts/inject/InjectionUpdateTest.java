@@ -170,5 +170,43 @@ public class InjectionUpdateTest extends TestCase {
 		assertEquals(targetA, targetB);
 		assertSame(targetA, targetB);
 	}
-	
+
+	static public class UnchangedTest {
+		public int methodCalls = 0;
+
+		@Inject
+		@Named("calculated")
+		public Object field;
+
+		@Inject
+		public void setCalculated(@Named("calculated") Object object) {
+			methodCalls++;
+		}
+	}
+
+	/**
+	 * Changes to tracked values that don't change the injected objects don't re-inject
+	 */
+	public void testUnchangedValues() {
+		final Object result = new Object();
+		c1.set("mode", "a");
+		c1.set("calculated", new ContextFunction() {
+			public Object compute(IEclipseContext context, String contextKey) {
+				context.get("mode"); // depends on mode, but always returns the same object
+				return result;
+			}});
+
+		UnchangedTest testObject = ContextInjectionFactory.make(UnchangedTest.class, c1);
+		assertEquals(1, testObject.methodCalls);
+		assertSame(result, testObject.field);
+
+		c1.set("mode", "b");
+		assertEquals(1, testObject.methodCalls);
+		assertSame(result, testObject.field);
+
+		Object newResult = new Object();
+		c1.set("calculated", newResult);
+		assertEquals(2, testObject.methodCalls);
+		assertSame(newResult, testObject.field);
+	}
 }
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.core.internal.tests.contexts.performance;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Performance tests for contexts and injection. Results are recorded through the
+ * performance framework so that they can be compared between builds.
+ */
+public class AllTests extends TestCase {
+	public static Test suite() {
+		TestSuite suite = new TestSuite(AllTests.class.getName());
+		suite.addTest(ContextPerformanceTest.suite());
+		suite.addTest(ContextTreePerformanceTest.suite());
+		suite.addTest(InjectionPerformanceTest.suite());
+		return suite;
+	}
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.core.internal.tests.contexts.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.tests.harness.PerformanceTestRunner;
+import org.eclipse.e4.core.contexts.ContextFunction;
+import org.eclipse.e4.core.contexts.ContextInjectionFactory;
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.contexts.RunAndTrack;
+
+/**
+ * Measures operations whose cost depends on the shape of the context tree: lookups
+ * through a chain of parents, notification of many runnables, and disposal or
+ * uninjection of large numbers of contexts and objects.
+ * <p>
+ * Unlike {@link ContextPerformanceTest}, contexts are not linked to the OSGi service
+ * registry so that results only reflect the context implementation.
+ * </p>
+ */
+public class ContextTreePerformanceTest extends TestCase {
+
+	static public class Injected {
+		@Inject
+		@Named("value")
+		public String value;
+
+		@Inject
+		public void setOther(@Named("other") String other) {
+			// placeholder
+		}
+	}
+
+	IEclipseContext root;
+
+	public static Test suite() {
+		return new TestSuite(ContextTreePerformanceTest.class);
+	}
+
+	public ContextTreePerformanceTest(String name) {
+		super(name);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		root = EclipseContextFactory.create(getName());
+		root.set("value", "value");
+		root.set("other", "other");
+	}
+
+	protected void tearDown() throws Exception {
+		root.dispose();
+		super.tearDown();
+	}
+
+	private IEclipseContext createChain(int depth) {
+		IEclipseContext leaf = root;
+		for (int i = 0; i < depth; i++)
+			leaf = leaf.createChild("child" + i);
+		return leaf;
+	}
+
+	private void lookup(int depth) {
+		final IEclipseContext leaf = createChain(depth);
+		new PerformanceTestRunner() {
+			protected void test() {
+				leaf.get("value");
+			}
+		}.run(this, 10, 500000);
+	}
+
+	public void testLookupDepth1() {
+		lookup(1);
+	}
+
+	public void testLookupDepth10() {
+		lookup(10);
+	}
+
+	public void testLookupDepth50() {
+		lookup(50);
+	}
+
+	/**
+	 * Looks up a context function value through a chain of contexts; the value is
+	 * only computed once
+	 */
+	public void testLookupContextFunctionDepth10() {
+		root.set("function", new ContextFunction() {
+			public Object compute(IEclipseContext context, String contextKey) {
+				return context.get("value") + "-computed";
+			}
+		});
+		final IEclipseContext leaf = createChain(10);
+		new PerformanceTestRunner() {
+			protected void test() {
+				leaf.get("function");
+			}
+		}.run(this, 10, 500000);
+	}
+
+	private void setTracked(int count) {
+		IEclipseContext leaf = createChain(5);
+		for (int i = 0; i < count; i++) {
+			leaf.createChild("rat" + i).runAndTrack(new RunAndTrack() {
+				public boolean changed(IEclipseContext context) {
+					context.get("tracked");
+					return true;
+				}
+			});
+		}
+		new PerformanceTestRunner() {
+			int i = 0;
+
+			protected void test() {
+				root.set("tracked", "value-" + i++);
+			}
+		}.run(this, 10, 50000 / count);
+	}
+
+	public void testSetValueRunAndTrack10() {
+		setTracked(10);
+	}
+
+	public void testSetValueRunAndTrack100() {
+		setTracked(100);
+	}
+
+	public void testSetValueRunAndTrack1000() {
+		setTracked(1000);
+	}
+
+	/**
+	 * Disposes a tree of 1000 contexts, each with an injected object
+	 */
+	public void testDisposeTree() {
+		new PerformanceTestRunner() {
+			IEclipseContext tree;
+
+			protected void setUp() {
+				tree = root.createChild("tree");
+				for (int i = 0; i < 10; i++) {
+					IEclipseContext child = tree.createChild();
+					for (int j = 0; j < 100; j++)
+						ContextInjectionFactory.make(Injected.class, child.createChild());
+				}
+			}
+
+			protected void test() {
+				tree.dispose();
+			}
+		}.run(this, 10, 1);
+	}
+
+	/**
+	 * Uninjects 1000 objects injected from the same context
+	 */
+	public void testUninject() {
+		new PerformanceTestRunner() {
+			IEclipseContext context;
+			List<Injected> objects = new ArrayList<Injected>();
+
+			protected void setUp() {
+				context = root.createChild("objects");
+				for (int i = 0; i < 1000; i++)
+					objects.add(ContextInjectionFactory.make(Injected.class, context));
+			}
+
+			protected void test() {
+				for (Injected object : objects)
+					ContextInjectionFactory.uninject(object, context);
+			}
+
+			protected void tearDown() {
+				objects.clear();
+				context.dispose();
+			}
+		}.run(this, 10, 1);
+	}
+}
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.core.internal.tests.contexts.performance;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.tests.harness.PerformanceTestRunner;
+import org.eclipse.e4.core.contexts.ContextInjectionFactory;
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.di.annotations.Execute;
+import org.eclipse.e4.core.di.annotations.Optional;
+
+/**
+ * Measures throughput of the injector for the typical operations on parts:
+ * creating, injecting and invoking methods.
+ */
+public class InjectionPerformanceTest extends TestCase {
+
+	static public class Base {
+		@Inject
+		@Named("value0")
+		protected String baseField;
+
+		@Inject
+		public void setBase(@Named("value1") String value) {
+			// placeholder
+		}
+	}
+
+	static public class Part extends Base {
+		@Inject
+		@Named("value2")
+		private String field1;
+
+		@Inject
+		@Optional
+		@Named("missing")
+		private String field2;
+
+		@Inject
+		private IEclipseContext context;
+
+		public int count;
+
+		@Inject
+		public Part(@Named("value3") String value) {
+			// placeholder
+		}
+
+		@Inject
+		public void setValues(@Named("value4") String value4, @Named("value5") Integer value5) {
+			// placeholder
+		}
+
+		@PostConstruct
+		public void created() {
+			count++;
+		}
+
+		@Execute
+		public void execute(@Named("value0") String value) {
+			count++;
+		}
+	}
+
+	static public class Simple {
+		@Inject
+		public Simple() {
+			// placeholder
+		}
+	}
+
+	static public class Level1 {
+		@Inject
+		@Named("value0")
+		public String field1;
+	}
+
+	static public class Level2 extends Level1 {
+		@Inject
+		@Named("value1")
+		public String field2;
+	}
+
+	static public class Level3 extends Level2 {
+		@Inject
+		@Named("value2")
+		public String field3;
+	}
+
+	static public class Level4 extends Level3 {
+		@Inject
+		@Named("value3")
+		public String field4;
+	}
+
+	static public class Deep extends Level4 {
+		@Inject
+		@Named("value4")
+		public String field5;
+	}
+
+	IEclipseContext context;
+
+	public static Test suite() {
+		return new TestSuite(InjectionPerformanceTest.class);
+	}
+
+	public InjectionPerformanceTest(String name) {
+		super(name);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		context = EclipseContextFactory.create(getName());
+		for (int i = 0; i < 5; i++) {
+			context.set("value" + i, "value" + i);
+		}
+		context.set("value5", new Integer(5));
+	}
+
+	protected void tearDown() throws Exception {
+		context.dispose();
+		super.tearDown();
+	}
+
+	public void testMake() {
+		make(Part.class);
+	}
+
+	public void testMakeSimple() {
+		make(Simple.class);
+	}
+
+	public void testMakeDeepHierarchy() {
+		make(Deep.class);
+	}
+
+	private void make(final Class<?> clazz) {
+		new PerformanceTestRunner() {
+			IEclipseContext child;
+
+			protected void setUp() {
+				child = context.createChild();
+			}
+
+			protected void test() {
+				ContextInjectionFactory.make(clazz, child);
+			}
+
+			protected void tearDown() {
+				child.dispose();
+			}
+		}.run(this, 10, 5000);
+	}
+
+	public void testInject() {
+		final IEclipseContext child = context.createChild();
+		new PerformanceTestRunner() {
+			protected void test() {
+				Part part = new Part(null);
+				ContextInjectionFactory.inject(part, child);
+				ContextInjectionFactory.uninject(part, child);
+			}
+		}.run(this, 10, 20000);
+	}
+
+	public void testInvoke() {
+		final Part part = ContextInjectionFactory.make(Part.class, context);
+		new PerformanceTestRunner() {
+			protected void test() {
+				ContextInjectionFactory.invoke(part, Execute.class, context);
+			}
+		}.run(this, 10, 100000);
+	}
+}
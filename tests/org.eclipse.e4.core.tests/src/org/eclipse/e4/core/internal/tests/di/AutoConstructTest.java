@@ -10,15 +10,25 @@
  ******************************************************************************/
 package org.eclipse.e4.core.internal.tests.di;
 
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
 
 import junit.framework.TestCase;
 
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.di.IInjector;
 import org.eclipse.e4.core.di.InjectionException;
+import org.eclipse.e4.core.di.InjectorFactory;
 import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.e4.core.internal.contexts.ContextObjectSupplier;
 
 public class AutoConstructTest extends TestCase {
 
@@ -73,4 +83,136 @@ public class AutoConstructTest extends TestCase {
 				context);
 		assertNotNull(consumer2);
 	}
+
+	static CyclicBarrier barrier;
+
+	@Creatable
+	static class Parallel1 {
+		@Inject
+		public Parallel1() throws Exception {
+			barrier.await(5, TimeUnit.SECONDS); // only passes if Parallel2 is created at the same time
+		}
+	}
+
+	@Creatable
+	static class Parallel2 {
+		@Inject
+		public Parallel2() throws Exception {
+			barrier.await(5, TimeUnit.SECONDS);
+		}
+	}
+
+	static class ParallelConsumer {
+		public Parallel1 dep1;
+		public Parallel2 dep2;
+
+		@Inject
+		public ParallelConsumer(Parallel1 dep1, Parallel2 dep2) {
+			this.dep1 = dep1;
+			this.dep2 = dep2;
+		}
+	}
+
+	static class ParallelFieldConsumer {
+		@Inject
+		public Parallel1 dep1;
+		@Inject
+		public Parallel2 dep2;
+	}
+
+	@Creatable
+	static class ContextParallel1 {
+		public String value;
+		public Thread injecting;
+
+		@Inject
+		public ContextParallel1() throws Exception {
+			barrier.await(5, TimeUnit.SECONDS); // only passes if ContextParallel2 is created at the same time
+		}
+
+		@Inject
+		public void setValue(@Named("value") String value) {
+			this.value = value;
+			injecting = Thread.currentThread();
+		}
+	}
+
+	@Creatable
+	@Singleton
+	static class ContextParallel2 {
+		public String value;
+		public Thread injecting;
+
+		@Inject
+		public ContextParallel2(@Named("value") String value) throws Exception {
+			this.value = value;
+			barrier.await(5, TimeUnit.SECONDS);
+		}
+
+		@Inject
+		public void setValue(@Named("value") String value) {
+			injecting = Thread.currentThread();
+		}
+	}
+
+	static class ContextParallelConsumer {
+		@Inject
+		public ContextParallel1 dep1;
+		@Inject
+		public ContextParallel2 dep2;
+	}
+
+	/**
+	 * Checks that independent dependencies are created in parallel if an executor is set
+	 */
+	public void testParallelCreation() {
+		IInjector injector = InjectorFactory.makeInjector();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		injector.setCreationExecutor(executor);
+		try {
+			barrier = new CyclicBarrier(2);
+			ParallelConsumer consumer = injector.make(ParallelConsumer.class, null);
+			assertNotNull(consumer.dep1);
+			assertNotNull(consumer.dep2);
+
+			barrier = new CyclicBarrier(2);
+			ParallelFieldConsumer fieldConsumer = injector.make(ParallelFieldConsumer.class, null);
+			assertNotNull(fieldConsumer.dep1);
+			assertNotNull(fieldConsumer.dep2);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Checks that objects made from a context are constructed in parallel, but use the
+	 * context on the calling thread only
+	 */
+	public void testParallelCreationWithContext() {
+		IInjector injector = InjectorFactory.makeInjector();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		injector.setCreationExecutor(executor);
+		try {
+			IEclipseContext context = EclipseContextFactory.create();
+			context.set("value", "abc");
+			barrier = new CyclicBarrier(2);
+			ContextParallelConsumer consumer = injector.make(ContextParallelConsumer.class, ContextObjectSupplier.getObjectSupplier(context, injector));
+			assertEquals("abc", consumer.dep1.value);
+			assertEquals("abc", consumer.dep2.value);
+			assertSame(Thread.currentThread(), consumer.dep1.injecting);
+			assertSame(Thread.currentThread(), consumer.dep2.injecting);
+
+			// values are still tracked
+			context.set("value", "def");
+			assertEquals("def", consumer.dep1.value);
+
+			// the singleton is reused
+			barrier = new CyclicBarrier(1);
+			ContextParallelConsumer consumer2 = injector.make(ContextParallelConsumer.class, ContextObjectSupplier.getObjectSupplier(context, injector));
+			assertSame(consumer.dep2, consumer2.dep2);
+			assertNotSame(consumer.dep1, consumer2.dep1);
+		} finally {
+			executor.shutdown();
+		}
+	}
 }
@@ -10,8 +10,12 @@
  ******************************************************************************/
 package org.eclipse.e4.core.internal.tests.di;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
 import junit.framework.TestCase;
 
@@ -19,6 +23,7 @@ import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.InjectionException;
+import org.eclipse.e4.core.di.annotations.Creatable;
 
 public class RecursiveObjectCreationTest extends TestCase {
 	
@@ -85,4 +90,80 @@ public class RecursiveObjectCreationTest extends TestCase {
 		}
 		assertTrue(exceptionReceived);
 	}
+
+	///////////////////////////////////////////////////////////////////////
+
+	@Creatable
+	@Singleton
+	static public class SingletonA {
+		@Inject
+		public SingletonB other;
+	}
+
+	@Creatable
+	@Singleton
+	static public class SingletonB {
+		@Inject
+		public SingletonA other;
+	}
+
+	/**
+	 * Checks that singletons referring to each other are reported rather than created
+	 * over and over
+	 */
+	public void testSingletonCycle() {
+		IEclipseContext context = EclipseContextFactory.create();
+		boolean exceptionReceived = false;
+		try {
+			SingletonA testInstance = ContextInjectionFactory.make(SingletonA.class, context);
+			assertNotNull(testInstance); // unreachable
+		} catch (InjectionException e) {
+			exceptionReceived = true;
+		}
+		assertTrue(exceptionReceived);
+	}
+
+	///////////////////////////////////////////////////////////////////////
+
+	@Singleton
+	static public class SlowSingleton {
+		static AtomicInteger created = new AtomicInteger();
+
+		@Inject
+		public SlowSingleton() throws InterruptedException {
+			created.incrementAndGet();
+			Thread.sleep(50);
+		}
+	}
+
+	/**
+	 * Checks that a singleton requested by several threads at once is only created once
+	 */
+	public void testConcurrentSingleton() throws InterruptedException {
+		final IEclipseContext context = EclipseContextFactory.create();
+		final CountDownLatch start = new CountDownLatch(1);
+		final Object[] results = new Object[4];
+		Thread[] threads = new Thread[results.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					results[index] = ContextInjectionFactory.make(SlowSingleton.class, context);
+				}
+			};
+			threads[i].start();
+		}
+		start.countDown();
+		for (int i = 0; i < threads.length; i++)
+			threads[i].join();
+		assertEquals(1, SlowSingleton.created.get());
+		assertNotNull(results[0]);
+		for (int i = 1; i < results.length; i++)
+			assertSame(results[0], results[i]);
+	}
 }
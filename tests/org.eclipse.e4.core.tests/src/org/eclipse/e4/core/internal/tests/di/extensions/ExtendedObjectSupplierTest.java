@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.core.internal.tests.di.extensions;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Dictionary;
+import java.util.Hashtable;
+
+import javax.inject.Inject;
+import javax.inject.Qualifier;
+
+import junit.framework.TestCase;
+
+import org.eclipse.e4.core.contexts.ContextInjectionFactory;
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.di.annotations.Optional;
+import org.eclipse.e4.core.di.suppliers.ExtendedObjectSupplier;
+import org.eclipse.e4.core.di.suppliers.IObjectDescriptor;
+import org.eclipse.e4.core.di.suppliers.IRequestor;
+import org.eclipse.e4.core.internal.tests.CoreTestsActivator;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+
+public class ExtendedObjectSupplierTest extends TestCase {
+
+	@Qualifier
+	@Documented
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface TestQualifier {
+		// empty
+	}
+
+	static class TestSupplier extends ExtendedObjectSupplier {
+		final private String value;
+
+		TestSupplier(String value) {
+			this.value = value;
+		}
+
+		public Object get(IObjectDescriptor descriptor, IRequestor requestor, boolean track, boolean group) {
+			return value;
+		}
+	}
+
+	static class InjectTarget {
+		@Inject
+		@Optional
+		@TestQualifier
+		public String value;
+	}
+
+	private ServiceRegistration<?> register(String value) {
+		BundleContext bundleContext = CoreTestsActivator.getDefault().getBundleContext();
+		Dictionary<String, Object> properties = new Hashtable<String, Object>();
+		properties.put(ExtendedObjectSupplier.SERVICE_CONTEXT_KEY, TestQualifier.class.getName());
+		return bundleContext.registerService(ExtendedObjectSupplier.SERVICE_NAME, new TestSupplier(value), properties);
+	}
+
+	/**
+	 * Checks that changes to extended object supplier services are picked up
+	 */
+	public void testSupplierChanges() {
+		IEclipseContext context = EclipseContextFactory.create();
+		assertNull(ContextInjectionFactory.make(InjectTarget.class, context).value);
+
+		ServiceRegistration<?> registration = register("abc");
+		try {
+			assertEquals("abc", ContextInjectionFactory.make(InjectTarget.class, context).value);
+			assertEquals("abc", ContextInjectionFactory.make(InjectTarget.class, context).value);
+		} finally {
+			registration.unregister();
+		}
+		assertNull(ContextInjectionFactory.make(InjectTarget.class, context).value);
+
+		registration = register("xyz");
+		try {
+			assertEquals("xyz", ContextInjectionFactory.make(InjectTarget.class, context).value);
+		} finally {
+			registration.unregister();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 IBM Corporation and others.
+ * Copyright (c) 2010, 2013 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,8 +11,16 @@
 package org.eclipse.e4.core.internal.tests.di.extensions;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Dictionary;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -31,9 +39,12 @@ import org.eclipse.e4.core.internal.tests.CoreTestsActivator;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.BundleException;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
 import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
 
 // TBD add auto-conversion?
 public class InjectionEventTest extends TestCase {
@@ -99,6 +110,48 @@ public class InjectionEventTest extends TestCase {
 		}
 	}
 
+	// Class used to test several subscribers to the same topic
+	static class InjectMultipleEvent {
+		public int counter1 = 0;
+		public String string1;
+		
+		@Inject @Optional
+		public void receivedEvent1(@EventTopic("e4/test/multiple") String string1) {
+			counter1++;
+			this.string1 = string1;
+		}
+	}
+
+	// Class used to test concurrent event delivery
+	static class InjectConcurrentEvent {
+		public List<String> received = Collections.synchronizedList(new ArrayList<String>());
+		
+		@Inject @Optional
+		public void receivedEvent(@EventTopic("e4/test/concurrent") String data) {
+			received.add(data);
+		}
+	}
+
+	// Class used to test sending events while a delivery is in progress
+	static class InjectBlockingEvent {
+		public List<String> received = Collections.synchronizedList(new ArrayList<String>());
+		public CountDownLatch blocked = new CountDownLatch(1);
+		public CountDownLatch release = new CountDownLatch(1);
+		public EventAdminHelper helper;
+
+		@Inject @Optional
+		public void receivedEvent(@EventTopic("e4/test/blocking") String data) throws InterruptedException {
+			received.add(data);
+			if ("block".equals(data)) {
+				blocked.countDown();
+				release.await(10, TimeUnit.SECONDS);
+			} else if ("outer".equals(data)) {
+				helper.sendEvent("e4/test/blocking", "inner");
+				received.add("outer done");
+			}
+		}
+	}
+
 	// This tests and demos sending events
 	static public class EventAdminHelper {
 		@Inject
@@ -243,6 +296,109 @@ public class InjectionEventTest extends TestCase {
 		assertEquals("sample", target.event.getProperty("data2"));
 	}
 	
+	public void testMultipleSubscribers() throws InvalidSyntaxException {
+		IEclipseContext context = EclipseContextFactory.create();
+		InjectMultipleEvent target1 = ContextInjectionFactory.make(InjectMultipleEvent.class, context);
+		InjectMultipleEvent target2 = ContextInjectionFactory.make(InjectMultipleEvent.class, context);
+		
+		// all subscribers to a topic share one event handler
+		BundleContext bundleContext = CoreTestsActivator.getDefault().getBundleContext();
+		ServiceReference<?>[] handlers = bundleContext.getServiceReferences(EventHandler.class.getName(), "(" + EventConstants.EVENT_TOPIC + "=e4/test/multiple)");
+		assertNotNull(handlers);
+		assertEquals(1, handlers.length);
+		
+		helper.sendEvent("e4/test/multiple", "first");
+		assertEquals(1, target1.counter1);
+		assertEquals("first", target1.string1);
+		assertEquals(1, target2.counter1);
+		assertEquals("first", target2.string1);
+		
+		ContextInjectionFactory.uninject(target1, context);
+		helper.sendEvent("e4/test/multiple", "second");
+		assertEquals(1, target1.counter1);
+		assertEquals("first", target1.string1);
+		assertEquals(2, target2.counter1);
+		assertEquals("second", target2.string1);
+		
+		// the handler is unregistered with the last subscriber
+		ContextInjectionFactory.uninject(target2, context);
+		assertNull(bundleContext.getServiceReferences(EventHandler.class.getName(), "(" + EventConstants.EVENT_TOPIC + "=e4/test/multiple)"));
+	}
+	
+	public void testConcurrentDelivery() throws InterruptedException {
+		IEclipseContext context = EclipseContextFactory.create();
+		InjectConcurrentEvent target1 = ContextInjectionFactory.make(InjectConcurrentEvent.class, context);
+		InjectConcurrentEvent target2 = ContextInjectionFactory.make(InjectConcurrentEvent.class, context);
+		
+		final int threadCount = 4;
+		final int eventCount = 200;
+		Thread[] threads = new Thread[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			final String prefix = "thread" + i + "-";
+			threads[i] = new Thread() {
+				public void run() {
+					for (int j = 0; j < eventCount; j++)
+						helper.sendEvent("e4/test/concurrent", prefix + j);
+				}
+			};
+		}
+		for (int i = 0; i < threadCount; i++)
+			threads[i].start();
+		for (int i = 0; i < threadCount; i++)
+			threads[i].join();
+		
+		// every target got every event exactly once
+		Set<String> expected = new HashSet<String>();
+		for (int i = 0; i < threadCount; i++) {
+			for (int j = 0; j < eventCount; j++)
+				expected.add("thread" + i + "-" + j);
+		}
+		assertEquals(expected.size(), target1.received.size());
+		assertEquals(expected, new HashSet<String>(target1.received));
+		assertEquals(expected.size(), target2.received.size());
+		assertEquals(expected, new HashSet<String>(target2.received));
+	}
+	
+	public void testSendWhileDelivering() throws InterruptedException {
+		IEclipseContext context = EclipseContextFactory.create();
+		InjectBlockingEvent target = ContextInjectionFactory.make(InjectBlockingEvent.class, context);
+		target.helper = helper;
+
+		Thread blockedThread = new Thread() {
+			public void run() {
+				helper.sendEvent("e4/test/blocking", "block");
+			}
+		};
+		blockedThread.start();
+		assertTrue(target.blocked.await(10, TimeUnit.SECONDS));
+		try {
+			// sending is synchronous while another thread delivers to the same object
+			helper.sendEvent("e4/test/blocking", "second");
+			assertEquals(Arrays.asList("block", "second"), target.received);
+
+			// events sent by a handler to its own topic are delivered before the send returns
+			helper.sendEvent("e4/test/blocking", "outer");
+			assertEquals(Arrays.asList("block", "second", "outer", "inner", "outer done"), target.received);
+		} finally {
+			target.release.countDown();
+			blockedThread.join();
+		}
+		ContextInjectionFactory.uninject(target, context);
+	}
+
+	public void testConstructEvent() {
+		Object data = new Object();
+		Event event = EventUtils.constructEvent("e4/test/construct", data);
+		assertEquals("e4/test/construct", event.getTopic());
+		assertEquals("e4/test/construct", event.getProperty(EventConstants.EVENT_TOPIC));
+		assertSame(data, event.getProperty(EventUtils.DATA));
+		assertEquals(2, event.getPropertyNames().length);
+		
+		event = EventUtils.constructEvent("e4/test/construct", null);
+		assertFalse(event.containsProperty(EventUtils.DATA));
+		assertEquals(1, event.getPropertyNames().length);
+	}
+	
 	private void wrapSetup() throws InvocationTargetException, InstantiationException {
 		IEclipseContext context = EclipseContextFactory.create();
 		{
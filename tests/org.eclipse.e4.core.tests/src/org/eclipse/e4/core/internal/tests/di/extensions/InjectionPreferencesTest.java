@@ -14,6 +14,8 @@ import javax.inject.Inject;
 
 import junit.framework.TestCase;
 
+import org.eclipse.core.runtime.preferences.ConfigurationScope;
+import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
@@ -31,6 +33,11 @@ public class InjectionPreferencesTest extends TestCase {
 	
 	static final private String TEST_PREFS_KEY = "testPreferencesQualifier";  
 	static final private String TEST_PREFS_NODE = "org.eclipse.e4.core.tests.ext";
+	static final private String TEST_SCOPES_NODE = "org.eclipse.e4.core.tests.scopes";
+	static final private String TEST_NESTED_NODE = TEST_SCOPES_NODE + "/nested";
+
+	static final private String KEY_1 = "testPreferencesKey1";
+	static final private String KEY_2 = "testPreferencesKey2";
 	
 	static final private String KEY_INT = "testPreferencesInt";
 	static final private String KEY_BOOL = "testPreferencesBoolean";
@@ -144,6 +151,42 @@ public class InjectionPreferencesTest extends TestCase {
 		}
 	}
 
+	static class InjectTargetNested {
+		public String pref;
+
+		@Inject
+		public void setPref(@Optional @Preference(value=KEY_1, nodePath=TEST_NESTED_NODE) String string) {
+			pref = string;
+		}
+	}
+
+	static class InjectTargetKeys {
+		public int counter1 = 0;
+		public int counter2 = 0;
+
+		public String pref1;
+		public String pref2;
+
+		@Inject
+		public void setPref1(@Optional @Preference(value=KEY_1, nodePath=TEST_SCOPES_NODE) String string) {
+			counter1++;
+			pref1 = string;
+		}
+
+		@Inject
+		public void setPref2(@Optional @Preference(value=KEY_2, nodePath=TEST_SCOPES_NODE) String string) {
+			counter2++;
+			pref2 = string;
+		}
+	}
+
+	protected void tearDown() throws Exception {
+		InstanceScope.INSTANCE.getNode(TEST_SCOPES_NODE).removeNode();
+		ConfigurationScope.INSTANCE.getNode(TEST_SCOPES_NODE).removeNode();
+		DefaultScope.INSTANCE.getNode(TEST_SCOPES_NODE).removeNode();
+		super.tearDown();
+	}
+
 	public void testPreferencesQualifier() throws BackingStoreException {
 		setPreference(TEST_PREFS_KEY, "abc");
 		setPreference(TEST_PREFS_KEY, TEST_PREFS_NODE, "123");
@@ -285,4 +328,99 @@ public class InjectionPreferencesTest extends TestCase {
 		assertEquals("abc", target.pref);
 		assertEquals("123", target.prefNode);
 	}
+
+	public void testScopes() {
+		IEclipsePreferences instanceNode = InstanceScope.INSTANCE.getNode(TEST_SCOPES_NODE);
+		IEclipsePreferences configurationNode = ConfigurationScope.INSTANCE.getNode(TEST_SCOPES_NODE);
+		IEclipsePreferences defaultNode = DefaultScope.INSTANCE.getNode(TEST_SCOPES_NODE);
+		defaultNode.put(KEY_1, "default");
+		IEclipseContext context = EclipseContextFactory.create();
+		InjectTargetKeys target = ContextInjectionFactory.make(InjectTargetKeys.class, context);
+		assertEquals("default", target.pref1);
+		assertEquals(1, target.counter1);
+
+		configurationNode.put(KEY_1, "configuration");
+		assertEquals("configuration", target.pref1);
+		assertEquals(2, target.counter1);
+
+		instanceNode.put(KEY_1, "instance");
+		assertEquals("instance", target.pref1);
+		assertEquals(3, target.counter1);
+
+		// a lower scope does not override
+		defaultNode.put(KEY_1, "default2");
+		assertEquals("instance", target.pref1);
+
+		instanceNode.remove(KEY_1);
+		assertEquals("configuration", target.pref1);
+		configurationNode.remove(KEY_1);
+		assertEquals("default2", target.pref1);
+		defaultNode.remove(KEY_1);
+		assertNull(target.pref1);
+
+		// the other key was not changed
+		assertNull(target.pref2);
+		assertEquals(1, target.counter2);
+	}
+
+	public void testKeyUpdates() {
+		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(TEST_SCOPES_NODE);
+		node.put(KEY_1, "a");
+		node.put(KEY_2, "b");
+		IEclipseContext context = EclipseContextFactory.create();
+		InjectTargetKeys target = ContextInjectionFactory.make(InjectTargetKeys.class, context);
+		assertEquals(1, target.counter1);
+		assertEquals(1, target.counter2);
+
+		node.put(KEY_1, "c");
+		assertEquals("c", target.pref1);
+		assertEquals(2, target.counter1);
+		assertEquals("b", target.pref2);
+		assertEquals(1, target.counter2);
+
+		node.put(KEY_2, "d");
+		assertEquals(2, target.counter1);
+		assertEquals("d", target.pref2);
+		assertEquals(2, target.counter2);
+
+		// uninjected objects are not updated
+		ContextInjectionFactory.uninject(target, context);
+		int counter1 = target.counter1;
+		node.put(KEY_1, "e");
+		assertEquals(counter1, target.counter1);
+	}
+
+	public void testNodeRemoval() throws BackingStoreException {
+		InstanceScope.INSTANCE.getNode(TEST_SCOPES_NODE).put(KEY_1, "a");
+		IEclipseContext context = EclipseContextFactory.create();
+		InjectTargetKeys target = ContextInjectionFactory.make(InjectTargetKeys.class, context);
+		assertEquals("a", target.pref1);
+
+		InstanceScope.INSTANCE.getNode(TEST_SCOPES_NODE).removeNode();
+		assertNull(target.pref1);
+
+		// the node that replaces the removed one is tracked
+		InstanceScope.INSTANCE.getNode(TEST_SCOPES_NODE).put(KEY_1, "b");
+		assertEquals("b", target.pref1);
+		InstanceScope.INSTANCE.getNode(TEST_SCOPES_NODE).put(KEY_2, "c");
+		assertEquals("c", target.pref2);
+
+		// objects created later don't see the values of the removed node
+		InjectTargetKeys target2 = ContextInjectionFactory.make(InjectTargetKeys.class, context);
+		assertEquals("b", target2.pref1);
+	}
+
+	public void testAncestorRemoval() throws BackingStoreException {
+		InstanceScope.INSTANCE.getNode(TEST_NESTED_NODE).put(KEY_1, "a");
+		IEclipseContext context = EclipseContextFactory.create();
+		InjectTargetNested target = ContextInjectionFactory.make(InjectTargetNested.class, context);
+		assertEquals("a", target.pref);
+
+		// the removal of an ancestor is seen without looking the node up again
+		InstanceScope.INSTANCE.getNode(TEST_SCOPES_NODE).removeNode();
+		assertNull(target.pref);
+
+		InstanceScope.INSTANCE.getNode(TEST_NESTED_NODE).put(KEY_1, "b");
+		assertEquals("b", target.pref);
+	}
 }
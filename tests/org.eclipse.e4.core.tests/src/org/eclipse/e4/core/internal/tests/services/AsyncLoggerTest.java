@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.core.internal.tests.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.eclipse.e4.core.services.log.AsyncLogger;
+
+public class AsyncLoggerTest extends TestCase {
+
+	/**
+	 * Blocks the writer on the first message until released.
+	 */
+	static class BlockingLogger extends RecordingLogger {
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		protected void record(String level, String message) {
+			if (blocked.getCount() != 0) {
+				blocked.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			super.record(level, message);
+		}
+	}
+
+	private AsyncLogger logger;
+
+	protected void tearDown() throws Exception {
+		if (logger != null)
+			logger.dispose();
+		super.tearDown();
+	}
+
+	public void testOrder() {
+		RecordingLogger delegate = new RecordingLogger();
+		delegate.traceEnabled = false;
+		logger = new AsyncLogger(delegate);
+		logger.error("1");
+		logger.warn("2");
+		logger.info("3");
+		logger.trace("4");
+		logger.debug("5");
+		logger.flush();
+		assertEquals(Arrays.asList("error: 1", "warn: 2", "info: 3", "debug: 5"), delegate.getMessages());
+	}
+
+	public void testFlushWaits() throws Exception {
+		final BlockingLogger delegate = new BlockingLogger();
+		logger = new AsyncLogger(delegate);
+		logger.info("1");
+		logger.info("2");
+		assertTrue(delegate.blocked.await(10, TimeUnit.SECONDS));
+		final boolean[] flushed = new boolean[1];
+		Thread flusher = new Thread() {
+			public void run() {
+				logger.flush();
+				flushed[0] = delegate.getMessages().size() == 2;
+			}
+		};
+		flusher.start();
+		flusher.join(200);
+		assertTrue(flusher.isAlive()); // still blocked by the writer
+		delegate.release.countDown();
+		flusher.join(10000);
+		assertFalse(flusher.isAlive());
+		assertTrue(flushed[0]);
+	}
+
+	public void testFull() throws Exception {
+		BlockingLogger delegate = new BlockingLogger();
+		logger = new AsyncLogger(delegate, 2);
+		logger.info("blocking");
+		assertTrue(delegate.blocked.await(10, TimeUnit.SECONDS));
+		logger.info("1");
+		logger.info("2");
+		logger.info("dropped");
+		logger.warn("dropped");
+		logger.error("error");
+		delegate.release.countDown();
+		logger.flush();
+		List<String> expected = new ArrayList<String>();
+		expected.add("info: blocking");
+		expected.add("info: 1");
+		expected.add("info: 2");
+		expected.add("error: error");
+		expected.add("warn: 2 log messages were dropped");
+		assertEquals(expected, waitForMessages(delegate, expected.size()));
+	}
+
+	public void testDispose() {
+		RecordingLogger delegate = new RecordingLogger();
+		logger = new AsyncLogger(delegate);
+		for (int i = 0; i < 100; i++)
+			logger.info(Integer.toString(i));
+		logger.dispose();
+		assertEquals(100, delegate.getMessages().size());
+		assertEquals("info: 99", delegate.getMessages().get(99));
+
+		// logged directly once disposed
+		logger.info("after");
+		assertEquals("info: after", delegate.getMessages().get(100));
+	}
+
+	public void testDisposeWhileLogging() throws Exception {
+		final RecordingLogger delegate = new RecordingLogger();
+		logger = new AsyncLogger(delegate, 100000);
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				public void run() {
+					for (int j = 0; j < 1000; j++)
+						logger.info("message");
+				}
+			};
+			threads[i].start();
+		}
+		Thread.sleep(5);
+		logger.dispose();
+		for (int i = 0; i < threads.length; i++)
+			threads[i].join();
+		// no message is lost, whether it was queued or logged directly
+		assertEquals(4000, delegate.getMessages().size());
+	}
+
+	static private List<String> waitForMessages(RecordingLogger delegate, int count) throws InterruptedException {
+		// the dropped count is reported after the queued messages are written
+		for (int i = 0; i < 100 && delegate.getMessages().size() < count; i++)
+			Thread.sleep(50);
+		return delegate.getMessages();
+	}
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.core.internal.tests.services;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import junit.framework.TestCase;
+
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.internal.tests.CoreTestsActivator;
+import org.eclipse.e4.core.services.contributions.CachingContributionFactory;
+import org.eclipse.e4.core.services.contributions.IContributionFactory;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+
+public class CachingContributionFactoryTest extends TestCase {
+
+	static class CountingFactory implements IContributionFactory {
+		final List<String> created = new ArrayList<String>();
+
+		public synchronized Object create(String uriString, IEclipseContext context) {
+			return create(uriString, context, null);
+		}
+
+		public synchronized Object create(String uriString, IEclipseContext context, IEclipseContext staticContext) {
+			created.add(uriString);
+			return null;
+		}
+
+		public Bundle getBundle(String uriString) {
+			return null;
+		}
+	}
+
+	final static private String BUNDLE_NAME = "org.eclipse.e4.core.tests.contributions";
+	final static private String URI = "bundleclass://" + BUNDLE_NAME + '/' + PooledContribution.class.getName();
+
+	private File root;
+	private Bundle bundle;
+	private CountingFactory delegate;
+	private CachingContributionFactory factory;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		root = File.createTempFile("e4contributions", "");
+		root.delete();
+		root.mkdirs();
+		bundle = install(BUNDLE_NAME, PooledContribution.class);
+		delegate = new CountingFactory();
+		factory = new CachingContributionFactory(delegate);
+	}
+
+	protected void tearDown() throws Exception {
+		factory.dispose();
+		if (bundle.getState() != Bundle.UNINSTALLED)
+			bundle.uninstall();
+		File[] files = root.listFiles();
+		for (int i = 0; i < files.length; i++)
+			files[i].delete();
+		root.delete();
+		super.tearDown();
+	}
+
+	public void testCaching() throws Exception {
+		IEclipseContext context = EclipseContextFactory.create();
+		Object contribution1 = factory.create(URI, context);
+		Object contribution2 = factory.create(URI, context);
+		assertNotNull(contribution1);
+		assertNotNull(contribution2);
+		assertNotSame(contribution1, contribution2);
+		assertSame(contribution1.getClass(), contribution2.getClass());
+		assertEquals(PooledContribution.class.getName(), contribution1.getClass().getName());
+		assertTrue(delegate.created.isEmpty());
+
+		// not resolved by the caching factory
+		assertNull(factory.create("bundleclass://no.such.bundle/no.such.Class", context));
+		assertNull(factory.create("bundleclass://" + BUNDLE_NAME + "/no.such.Class", context));
+		assertNull(factory.create("platform:/plugin/" + BUNDLE_NAME + "/file.txt", context));
+		assertEquals(3, delegate.created.size());
+
+		// the instances are disposed with their context
+		context.dispose();
+		assertTrue(isDisposed(contribution1));
+		assertTrue(isDisposed(contribution2));
+	}
+
+	public void testPooling() throws Exception {
+		factory.setPooled(URI, true);
+		IEclipseContext context1 = EclipseContextFactory.create();
+		IEclipseContext context2 = EclipseContextFactory.create();
+		Object contribution = factory.create(URI, context1);
+		assertNotNull(contribution);
+		assertSame(contribution, factory.create(URI, context2));
+		assertSame(contribution, factory.create(URI, context1, context2));
+
+		// the pooled instance outlives the contexts it was requested from
+		context1.dispose();
+		context2.dispose();
+		assertFalse(isDisposed(contribution));
+		IEclipseContext context3 = EclipseContextFactory.create();
+		assertSame(contribution, factory.create(URI, context3));
+
+		factory.setPooled(URI, false);
+		assertTrue(isDisposed(contribution));
+		assertNotSame(contribution, factory.create(URI, context3));
+		context3.dispose();
+
+		// disposing the factory disposes the pooled instances
+		factory.setPooled(URI, true);
+		contribution = factory.create(URI, EclipseContextFactory.create());
+		factory.dispose();
+		assertTrue(isDisposed(contribution));
+	}
+
+	public void testConcurrentPooling() throws Exception {
+		factory.setPooled(URI, true);
+		final Object[] contributions = new Object[8];
+		Thread[] threads = new Thread[contributions.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread() {
+				public void run() {
+					contributions[index] = factory.create(URI, EclipseContextFactory.create());
+				}
+			};
+		}
+		for (int i = 0; i < threads.length; i++)
+			threads[i].start();
+		for (int i = 0; i < threads.length; i++)
+			threads[i].join();
+		assertNotNull(contributions[0]);
+		for (int i = 1; i < contributions.length; i++)
+			assertSame(contributions[0], contributions[i]);
+	}
+
+	public void testBundleChanges() throws Exception {
+		factory.setPooled(URI, true);
+		IEclipseContext context = EclipseContextFactory.create();
+		Object contribution = factory.create(URI, context);
+		assertSame(contribution, factory.create(URI, context));
+
+		// another bundle comes and goes
+		Bundle other = install(BUNDLE_NAME + ".other", null);
+		other.uninstall();
+		Object newContribution = factory.create(URI, context);
+		assertNotNull(newContribution);
+		assertNotSame(contribution, newContribution);
+		assertTrue(isDisposed(contribution));
+		assertFalse(isDisposed(newContribution));
+		assertTrue(delegate.created.isEmpty());
+
+		// the contributing bundle is gone
+		bundle.uninstall();
+		assertNull(factory.create(URI, context));
+		assertEquals(1, delegate.created.size());
+		assertTrue(isDisposed(newContribution));
+	}
+
+	public void testPoolingIgnoresStaticContext() throws Exception {
+		factory.setPooled(URI, true);
+		IEclipseContext context = EclipseContextFactory.create();
+		IEclipseContext staticContext = EclipseContextFactory.create();
+		Object contribution = factory.create(URI, context, staticContext);
+		assertNotNull(contribution);
+		staticContext.dispose();
+		context.dispose();
+		assertFalse(isDisposed(contribution));
+		assertSame(contribution, factory.create(URI, EclipseContextFactory.create()));
+	}
+
+	private Bundle install(String name, Class<?> contents) throws Exception {
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.putValue("Bundle-ManifestVersion", "2");
+		attributes.putValue("Bundle-SymbolicName", name);
+		attributes.putValue("Bundle-Version", "1.0.0");
+		attributes.putValue("Import-Package", "javax.annotation;resolution:=optional");
+		File file = new File(root, name + ".jar");
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(file), manifest);
+		try {
+			if (contents != null) {
+				String path = contents.getName().replace('.', '/') + ".class";
+				out.putNextEntry(new JarEntry(path));
+				InputStream in = contents.getClassLoader().getResourceAsStream(path);
+				try {
+					byte[] buffer = new byte[4096];
+					for (int read = in.read(buffer); read != -1; read = in.read(buffer))
+						out.write(buffer, 0, read);
+				} finally {
+					in.close();
+				}
+			}
+		} finally {
+			out.close();
+		}
+		BundleContext bundleContext = CoreTestsActivator.getDefault().getBundleContext();
+		Bundle bundle = bundleContext.installBundle(file.toURI().toString());
+		bundle.start(); // resolves the bundle
+		return bundle;
+	}
+
+	static private boolean isDisposed(Object contribution) throws Exception {
+		return contribution.getClass().getField("disposed").getBoolean(contribution);
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.core.internal.tests.services;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.IAdapterFactory;
+import org.eclipse.core.runtime.IAdapterManager;
+import org.eclipse.e4.core.contexts.ContextInjectionFactory;
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.internal.services.EclipseAdapter;
+import org.eclipse.e4.core.internal.tests.CoreTestsActivator;
+import org.eclipse.e4.core.services.adapter.Adapter;
+
+public class EclipseAdapterTest extends TestCase {
+
+	static class Element {
+		// adapted by the factory
+	}
+
+	static class ElementAdapter implements Runnable {
+		final Element element;
+
+		ElementAdapter(Element element) {
+			this.element = element;
+		}
+
+		public void run() {
+			// nothing to do
+		}
+	}
+
+	static class Factory implements IAdapterFactory {
+		@SuppressWarnings("rawtypes")
+		public Object getAdapter(Object adaptableObject, Class adapterType) {
+			if (adaptableObject instanceof Element && adapterType == Runnable.class)
+				return new ElementAdapter((Element) adaptableObject);
+			return null;
+		}
+
+		@SuppressWarnings("rawtypes")
+		public Class[] getAdapterList() {
+			return new Class[] {Runnable.class};
+		}
+	}
+
+	private IEclipseContext context;
+	private IAdapterManager adapterManager;
+	private Adapter adapter;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		context = EclipseContextFactory.getServiceContext(CoreTestsActivator.getDefault().getBundleContext()).createChild();
+		adapterManager = (IAdapterManager) context.get(IAdapterManager.class.getName());
+		assertNotNull(adapterManager);
+		adapter = ContextInjectionFactory.make(EclipseAdapter.class, context);
+	}
+
+	protected void tearDown() throws Exception {
+		context.dispose();
+		super.tearDown();
+	}
+
+	public void testInstanceOf() {
+		Element element = new Element();
+		assertSame(element, adapter.adapt(element, Element.class));
+		assertSame(element, adapter.adapt(element, Object.class));
+		assertNull(adapter.adapt(null, Runnable.class));
+	}
+
+	public void testFactoryRegisteredAfterMiss() {
+		Element element = new Element();
+		assertNull(adapter.adapt(element, Runnable.class));
+		assertNull(adapter.adapt(element, Runnable.class));
+
+		Factory factory = new Factory();
+		adapterManager.registerAdapters(factory, Element.class);
+		try {
+			Runnable result = adapter.adapt(element, Runnable.class);
+			assertNotNull(result);
+			assertSame(element, ((ElementAdapter) result).element);
+			// the adapter belongs to the element
+			Element other = new Element();
+			assertSame(other, ((ElementAdapter) adapter.adapt(other, Runnable.class)).element);
+		} finally {
+			adapterManager.unregisterAdapters(factory, Element.class);
+		}
+		assertNull(adapter.adapt(element, Runnable.class));
+	}
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.core.internal.tests.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.internal.services.EventPostDispatcher;
+import org.eclipse.e4.core.internal.tests.CoreTestsActivator;
+import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.core.services.events.IEventDeliveryPolicy;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+import org.osgi.service.event.EventConstants;
+
+public class EventPostDispatcherTest extends TestCase {
+
+	static class RecordingEventAdmin implements EventAdmin {
+		final List<Event> posted = new ArrayList<Event>();
+		volatile CountDownLatch latch = new CountDownLatch(1);
+
+		public synchronized void postEvent(Event event) {
+			posted.add(event);
+			latch.countDown();
+		}
+
+		public void sendEvent(Event event) {
+			postEvent(event);
+		}
+
+		synchronized List<Event> getPosted() {
+			return new ArrayList<Event>(posted);
+		}
+
+		void await() throws InterruptedException {
+			assertTrue("Events were not delivered", latch.await(10, TimeUnit.SECONDS));
+		}
+	}
+
+	final static private String TOPIC = "org/eclipse/e4/core/tests/dispatcher";
+
+	private EventPostDispatcher dispatcher;
+	private RecordingEventAdmin eventAdmin;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		dispatcher = new EventPostDispatcher();
+		eventAdmin = new RecordingEventAdmin();
+	}
+
+	protected void tearDown() throws Exception {
+		dispatcher.dispose();
+		super.tearDown();
+	}
+
+	public void testDeliverAll() {
+		assertFalse(dispatcher.post(event(TOPIC, "a"), eventAdmin));
+		dispatcher.setPolicy(TOPIC, IEventDeliveryPolicy.DELIVER_LATEST, 0);
+		dispatcher.setPolicy(TOPIC, IEventDeliveryPolicy.DELIVER_ALL, 0);
+		assertFalse(dispatcher.post(event(TOPIC, "b"), eventAdmin));
+		assertTrue(eventAdmin.getPosted().isEmpty());
+	}
+
+	public void testDeliverLatest() throws Exception {
+		dispatcher.setPolicy(TOPIC, IEventDeliveryPolicy.DELIVER_LATEST, 200);
+		assertTrue(dispatcher.post(event(TOPIC, "a"), eventAdmin));
+		assertTrue(dispatcher.post(event(TOPIC, "b"), eventAdmin));
+		assertTrue(dispatcher.post(event(TOPIC, "c"), eventAdmin));
+		// other topics are left to the caller
+		assertFalse(dispatcher.post(event(TOPIC + "/other", "d"), eventAdmin));
+		eventAdmin.await();
+		Thread.sleep(300); // nothing else arrives
+		List<Event> posted = eventAdmin.getPosted();
+		assertEquals(1, posted.size());
+		assertEquals("c", posted.get(0).getProperty(IEventBroker.DATA));
+	}
+
+	public void testDeliverBatch() throws Exception {
+		dispatcher.setPolicy(TOPIC, IEventDeliveryPolicy.DELIVER_BATCH, 200);
+		assertTrue(dispatcher.post(event(TOPIC, "a"), eventAdmin));
+		assertTrue(dispatcher.post(event(TOPIC, "b"), eventAdmin));
+		assertTrue(dispatcher.post(event(TOPIC, null), eventAdmin));
+		eventAdmin.await();
+		List<Event> posted = eventAdmin.getPosted();
+		assertEquals(1, posted.size());
+		Event batch = posted.get(0);
+		assertEquals(TOPIC, batch.getTopic());
+		assertEquals(Arrays.asList("a", "b", null), batch.getProperty(IEventBroker.DATA));
+
+		// the next batch only holds the events posted since
+		eventAdmin.latch = new CountDownLatch(1);
+		assertTrue(dispatcher.post(event(TOPIC, "c"), eventAdmin));
+		eventAdmin.await();
+		posted = eventAdmin.getPosted();
+		assertEquals(2, posted.size());
+		assertEquals(Arrays.asList("c"), posted.get(1).getProperty(IEventBroker.DATA));
+	}
+
+	public void testInvalidPolicy() {
+		try {
+			dispatcher.setPolicy(TOPIC, 42, 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			dispatcher.setPolicy(TOPIC, IEventDeliveryPolicy.DELIVER_BATCH, -1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testService() {
+		IEclipseContext context = EclipseContextFactory.getServiceContext(CoreTestsActivator.getDefault().getBundleContext());
+		IEventDeliveryPolicy service = context.get(IEventDeliveryPolicy.class);
+		assertNotNull(service);
+		assertFalse(service.post(event(TOPIC + "/service", "a"), eventAdmin));
+	}
+
+	static private Event event(String topic, Object data) {
+		Dictionary<String, Object> properties = new Hashtable<String, Object>(2);
+		properties.put(EventConstants.EVENT_TOPIC, topic);
+		if (data != null)
+			properties.put(IEventBroker.DATA, data);
+		return new Event(topic, properties);
+	}
+}
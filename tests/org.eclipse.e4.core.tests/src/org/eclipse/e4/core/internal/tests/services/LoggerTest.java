@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.core.internal.tests.services;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class LoggerTest extends TestCase {
+
+	static class Argument {
+		int formatted = 0;
+
+		public String toString() {
+			formatted++;
+			return "arg";
+		}
+	}
+
+	public void testDisabledLevelsNotFormatted() {
+		RecordingLogger logger = new RecordingLogger();
+		logger.errorEnabled = false;
+		logger.warnEnabled = false;
+		logger.infoEnabled = false;
+		logger.traceEnabled = false;
+		logger.debugEnabled = false;
+		Argument arg = new Argument();
+		logger.error("{0}", arg);
+		logger.error("{0} {1}", arg, arg);
+		logger.error("{0}", new Object[] {arg});
+		logger.warn("{0}", arg);
+		logger.warn("{0} {1}", arg, arg);
+		logger.warn("{0}", new Object[] {arg});
+		logger.info("{0}", arg);
+		logger.info("{0} {1}", arg, arg);
+		logger.info("{0}", new Object[] {arg});
+		logger.trace("{0}", arg);
+		logger.trace("{0} {1}", arg, arg);
+		logger.trace("{0}", new Object[] {arg});
+		logger.debug("{0}", arg);
+		logger.debug("{0} {1}", arg, arg);
+		logger.debug("{0}", new Object[] {arg});
+		assertEquals(0, arg.formatted);
+		assertTrue(logger.getMessages().isEmpty());
+	}
+
+	public void testEnabledLevelsFormatted() {
+		RecordingLogger logger = new RecordingLogger();
+		logger.debugEnabled = false;
+		Argument arg = new Argument();
+		logger.error("e {0}", arg);
+		logger.warn("w {0} {1}", arg, "x");
+		logger.info("i {0}", new Object[] {arg});
+		logger.trace("t {0}", arg);
+		logger.debug("d {0}", arg);
+		assertEquals(4, arg.formatted);
+		assertEquals(Arrays.asList("error: e arg", "warn: w arg x", "info: i arg", "trace: t arg"), logger.getMessages());
+	}
+}
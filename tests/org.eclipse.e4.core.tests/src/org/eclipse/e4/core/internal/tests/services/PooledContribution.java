@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.core.internal.tests.services;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Contribution class packaged in the bundle that CachingContributionFactoryTest installs.
+ */
+public class PooledContribution {
+
+	public boolean disposed = false;
+
+	@PreDestroy
+	public void dispose() {
+		disposed = true;
+	}
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.core.internal.tests.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.e4.core.services.log.Logger;
+
+/**
+ * Logger that remembers the messages of the enabled levels as "level: message".
+ */
+public class RecordingLogger extends Logger {
+
+	public boolean errorEnabled = true;
+	public boolean warnEnabled = true;
+	public boolean infoEnabled = true;
+	public boolean traceEnabled = true;
+	public boolean debugEnabled = true;
+
+	final private List<String> messages = new ArrayList<String>();
+
+	public synchronized List<String> getMessages() {
+		return new ArrayList<String>(messages);
+	}
+
+	protected synchronized void record(String level, String message) {
+		messages.add(level + ": " + message);
+	}
+
+	public boolean isErrorEnabled() {
+		return errorEnabled;
+	}
+
+	public void error(Throwable t, String message) {
+		record("error", message);
+	}
+
+	public boolean isWarnEnabled() {
+		return warnEnabled;
+	}
+
+	public void warn(Throwable t, String message) {
+		record("warn", message);
+	}
+
+	public boolean isInfoEnabled() {
+		return infoEnabled;
+	}
+
+	public void info(Throwable t, String message) {
+		record("info", message);
+	}
+
+	public boolean isTraceEnabled() {
+		return traceEnabled;
+	}
+
+	public void trace(Throwable t, String message) {
+		record("trace", message);
+	}
+
+	public boolean isDebugEnabled() {
+		return debugEnabled;
+	}
+
+	public void debug(Throwable t) {
+		debug(t, null);
+	}
+
+	public void debug(Throwable t, String message) {
+		record("debug", message);
+	}
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.core.internal.tests.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.e4.core.services.statusreporter.StatusReporter;
+import org.eclipse.e4.core.services.statusreporter.ThrottlingStatusReporter;
+
+public class ThrottlingStatusReporterTest extends TestCase {
+
+	static class Reported {
+		final IStatus status;
+		final int style;
+		final List<Object> information;
+		final long time = System.currentTimeMillis();
+
+		Reported(IStatus status, int style, Object[] information) {
+			this.status = status;
+			this.style = style;
+			this.information = (information == null) ? null : Arrays.asList(information);
+		}
+	}
+
+	static class RecordingReporter extends StatusReporter {
+		final List<Reported> reported = new ArrayList<Reported>();
+
+		public synchronized void report(IStatus status, int style, Object... information) {
+			reported.add(new Reported(status, style, information));
+			notifyAll();
+		}
+
+		public IStatus newStatus(int severity, String message, Throwable exception) {
+			return new Status(severity, PLUGIN, message, exception);
+		}
+
+		synchronized List<Reported> getReported() {
+			return new ArrayList<Reported>(reported);
+		}
+
+		synchronized List<Reported> await(int count) throws InterruptedException {
+			long end = System.currentTimeMillis() + 10000;
+			while (reported.size() < count && System.currentTimeMillis() < end)
+				wait(100);
+			return getReported();
+		}
+	}
+
+	final static private String PLUGIN = "org.eclipse.e4.core.tests";
+
+	private RecordingReporter delegate;
+	private ThrottlingStatusReporter reporter;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		delegate = new RecordingReporter();
+	}
+
+	protected void tearDown() throws Exception {
+		if (reporter != null)
+			reporter.dispose();
+		super.tearDown();
+	}
+
+	public void testDuplicatesDropped() throws Exception {
+		reporter = new ThrottlingStatusReporter(delegate, 60000);
+		reporter.report(status("a"), StatusReporter.LOG, "info");
+		reporter.report(status("a"), StatusReporter.LOG, "info");
+		reporter.report(status("b"), StatusReporter.LOG);
+		reporter.report(status("a"), StatusReporter.SHOW);
+		// the same message with another exception type is another status
+		reporter.report(new Status(IStatus.ERROR, PLUGIN, "a", new IllegalStateException()), StatusReporter.LOG);
+		List<Reported> reported = delegate.await(3);
+		Thread.sleep(100); // nothing else arrives
+		assertEquals(3, delegate.getReported().size());
+		assertEquals("a", reported.get(0).status.getMessage());
+		assertEquals(Arrays.asList("info"), reported.get(0).information);
+		assertEquals("b", reported.get(1).status.getMessage());
+		assertNotNull(reported.get(2).status.getException());
+	}
+
+	public void testRepeatedCount() throws Exception {
+		reporter = new ThrottlingStatusReporter(delegate, 200);
+		for (int i = 0; i < 4; i++)
+			reporter.report(status("a"), StatusReporter.SHOW, "info");
+		reporter.report(status("b"), StatusReporter.LOG, (Object[]) null);
+		reporter.report(status("b"), StatusReporter.LOG, (Object[]) null);
+		List<Reported> reported = delegate.await(4);
+		assertEquals(4, reported.size());
+		Reported a = find(reported, "a", StatusReporter.LOG);
+		assertEquals(Arrays.asList("info", "Status was reported 3 more times"), a.information);
+		Reported b = find(reported, "b", StatusReporter.LOG);
+		assertEquals(Arrays.asList("Status was reported 1 more times"), b.information);
+
+		// a new window starts once the previous one is closed
+		reporter.report(status("a"), StatusReporter.LOG);
+		assertEquals(5, delegate.await(5).size());
+	}
+
+	public void testNearestWindowEnd() throws Exception {
+		reporter = new ThrottlingStatusReporter(delegate, 500);
+		long start = System.currentTimeMillis();
+		reporter.report(status("a"), StatusReporter.LOG);
+		reporter.report(status("a"), StatusReporter.LOG);
+		delegate.await(1);
+		Thread.sleep(300);
+		reporter.report(status("b"), StatusReporter.LOG);
+		reporter.report(status("b"), StatusReporter.LOG);
+		List<Reported> reported = delegate.await(4);
+		assertEquals(4, reported.size());
+		// the window of "a" closes before the window of "b"
+		long summary = reported.get(2).time - start;
+		assertEquals("a", reported.get(2).status.getMessage());
+		assertTrue("Summary after " + summary + " ms", summary < 750);
+	}
+
+	public void testBlock() {
+		reporter = new ThrottlingStatusReporter(delegate, 60000);
+		reporter.report(status("a"), StatusReporter.BLOCK | StatusReporter.SHOW);
+		reporter.report(status("a"), StatusReporter.BLOCK | StatusReporter.SHOW);
+		// passed on directly
+		List<Reported> reported = delegate.getReported();
+		assertEquals(2, reported.size());
+		assertEquals(StatusReporter.BLOCK | StatusReporter.SHOW, reported.get(0).style);
+	}
+
+	public void testDispose() throws Exception {
+		reporter = new ThrottlingStatusReporter(delegate, 60000);
+		reporter.report(status("a"), StatusReporter.LOG);
+		reporter.report(status("a"), StatusReporter.LOG);
+		delegate.await(1);
+		reporter.dispose();
+		List<Reported> reported = delegate.getReported();
+		assertEquals(2, reported.size());
+		assertEquals(Arrays.asList("Status was reported 1 more times"), reported.get(1).information);
+
+		reporter.report(status("a"), StatusReporter.LOG);
+		reporter.report(status("a"), StatusReporter.LOG);
+		// passed on directly
+		assertEquals(4, delegate.getReported().size());
+	}
+
+	static private IStatus status(String message) {
+		return new Status(IStatus.ERROR, PLUGIN, message);
+	}
+
+	static private Reported find(List<Reported> reported, String message, int style) {
+		Reported result = null;
+		for (Reported report : reported) {
+			if (report.status.getMessage().equals(message) && report.style == style)
+				result = report;
+		}
+		assertNotNull(result);
+		return result;
+	}
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.core.internal.tests.services;
+
+import java.util.Arrays;
+import java.util.ResourceBundle;
+
+import junit.framework.TestCase;
+
+import org.eclipse.e4.core.internal.services.BundleTranslationProvider;
+import org.eclipse.e4.core.services.translation.TranslationService;
+
+public class TranslationServiceTest extends TestCase {
+
+	// a bundle with a "plugin" localization that is always present
+	final static private String CONTRIBUTOR = "platform:/plugin/org.eclipse.equinox.common";
+
+	static class CountingProvider extends BundleTranslationProvider {
+		int lookups = 0;
+
+		CountingProvider(String locale) {
+			setLocale(locale);
+		}
+
+		void setLocale(String locale) {
+			this.locale = locale;
+		}
+
+		public String getResourceString(String value, ResourceBundle resourceBundle) {
+			lookups++;
+			return super.getResourceString(value, resourceBundle);
+		}
+	}
+
+	public void testTranslatedKeysCached() {
+		CountingProvider provider = new CountingProvider("en");
+		String translated = provider.translate("%pluginName", CONTRIBUTOR);
+		assertFalse(translated, translated.startsWith("%"));
+		assertEquals(1, provider.lookups);
+		assertEquals(translated, provider.translate("%pluginName", CONTRIBUTOR));
+		assertEquals(1, provider.lookups);
+
+		// a missing key falls back to the text after the key
+		assertEquals("default text", provider.translate("%missingKey default text", CONTRIBUTOR));
+		assertEquals("default text", provider.translate("%missingKey default text", CONTRIBUTOR));
+		assertEquals(2, provider.lookups);
+	}
+
+	public void testPlainTextNotCached() {
+		CountingProvider provider = new CountingProvider("en");
+		assertEquals("plain text", provider.translate("plain text", CONTRIBUTOR));
+		assertEquals("plain text", provider.translate("plain text", CONTRIBUTOR));
+		assertEquals(2, provider.lookups);
+		assertEquals("%escaped", provider.translate("%%escaped", CONTRIBUTOR));
+	}
+
+	public void testLocaleChange() {
+		CountingProvider provider = new CountingProvider("en");
+		provider.translate("%pluginName", CONTRIBUTOR);
+		provider.translate("%pluginName", CONTRIBUTOR);
+		assertEquals(1, provider.lookups);
+		provider.setLocale("de");
+		provider.translate("%pluginName", CONTRIBUTOR);
+		assertEquals(2, provider.lookups);
+	}
+
+	public void testTranslateKeys() {
+		CountingProvider provider = new CountingProvider("en");
+		String[] keys = new String[] {"%pluginName", "plain text", "%%escaped", "%missingKey default text"};
+		String[] expected = new String[keys.length];
+		for (int i = 0; i < keys.length; i++)
+			expected[i] = provider.translate(keys[i], CONTRIBUTOR);
+		assertEquals(Arrays.asList(expected), Arrays.asList(provider.translate(keys, CONTRIBUTOR)));
+
+		// keys without a contributor are returned unchanged
+		assertEquals(Arrays.asList(keys), Arrays.asList(provider.translate(keys, null)));
+		assertEquals(0, provider.translate(new String[0], CONTRIBUTOR).length);
+	}
+
+	public void testDefaultTranslateKeys() {
+		TranslationService service = new TranslationService() {
+			public String translate(String key, String contributorURI) {
+				return contributorURI + ':' + key;
+			}
+		};
+		String[] result = service.translate(new String[] {"a", "b"}, "c");
+		assertEquals(Arrays.asList("c:a", "c:b"), Arrays.asList(result));
+	}
+}
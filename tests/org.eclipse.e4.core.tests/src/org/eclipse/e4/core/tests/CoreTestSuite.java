@@ -16,6 +16,7 @@ import junit.framework.TestSuite;
 
 import org.eclipse.e4.core.internal.tests.contexts.ActivationTest;
 import org.eclipse.e4.core.internal.tests.contexts.ContextDynamicTest;
+import org.eclipse.e4.core.internal.tests.contexts.ContextProfilerTest;
 import org.eclipse.e4.core.internal.tests.contexts.DependenciesLeakTest;
 import org.eclipse.e4.core.internal.tests.contexts.EclipseContextTest;
 import org.eclipse.e4.core.internal.tests.contexts.ReparentingTest;
@@ -48,9 +49,17 @@ import org.eclipse.e4.core.internal.tests.di.InjectionOrderTest;
 import org.eclipse.e4.core.internal.tests.di.InjectionResultLeakTest;
 import org.eclipse.e4.core.internal.tests.di.InvokeTest;
 import org.eclipse.e4.core.internal.tests.di.RecursiveObjectCreationTest;
+import org.eclipse.e4.core.internal.tests.di.extensions.ExtendedObjectSupplierTest;
 import org.eclipse.e4.core.internal.tests.di.extensions.InjectionEventTest;
 import org.eclipse.e4.core.internal.tests.di.extensions.InjectionMixedSuppliersTest;
 import org.eclipse.e4.core.internal.tests.di.extensions.InjectionPreferencesTest;
+import org.eclipse.e4.core.internal.tests.services.AsyncLoggerTest;
+import org.eclipse.e4.core.internal.tests.services.CachingContributionFactoryTest;
+import org.eclipse.e4.core.internal.tests.services.EclipseAdapterTest;
+import org.eclipse.e4.core.internal.tests.services.EventPostDispatcherTest;
+import org.eclipse.e4.core.internal.tests.services.LoggerTest;
+import org.eclipse.e4.core.internal.tests.services.ThrottlingStatusReporterTest;
+import org.eclipse.e4.core.internal.tests.services.TranslationServiceTest;
 
 public class CoreTestSuite extends TestSuite {
 	public static Test suite() {
@@ -61,6 +70,7 @@ public class CoreTestSuite extends TestSuite {
 		addTestSuite(InjectionPreferencesTest.class);
 		addTestSuite(InjectionMixedSuppliersTest.class);
 		addTestSuite(InjectionEventTest.class);
+		addTestSuite(ExtendedObjectSupplierTest.class);
 
 		// DI
 		addTestSuite(InjectionOrderTest.class);
@@ -99,8 +109,18 @@ public class CoreTestSuite extends TestSuite {
 		addTestSuite(InvokeInRATTest.class);
 		addTestSuite(Bug317183Test.class);
 		addTestSuite(DependenciesLeakTest.class);
+		addTestSuite(ContextProfilerTest.class);
 		addTestSuite(ActivationInjectionTest.class);
 		addTestSuite(GenericsInjectionTest.class);
 		addTestSuite(RecursiveObjectCreationTest.class);
+
+		// Services
+		addTestSuite(EventPostDispatcherTest.class);
+		addTestSuite(TranslationServiceTest.class);
+		addTestSuite(LoggerTest.class);
+		addTestSuite(AsyncLoggerTest.class);
+		addTestSuite(ThrottlingStatusReporterTest.class);
+		addTestSuite(CachingContributionFactoryTest.class);
+		addTestSuite(EclipseAdapterTest.class);
 	}
 }